@@ -4,10 +4,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableJpaRepositories("com.basketballcourtfinder.repository")
 @EntityScan("com.basketballcourtfinder.entity")
 @SpringBootApplication
+@EnableScheduling
 public class BasketballCourtFinderApplication {
 
 	public static void main(String[] args) {
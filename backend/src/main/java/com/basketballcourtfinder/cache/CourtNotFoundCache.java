@@ -0,0 +1,105 @@
+package com.basketballcourtfinder.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Remembers court IDs that Overpass returned nothing for, so repeated lookups of bogus or deleted IDs
+ * stop reaching upstream until the entry expires.
+ *
+ * Entries are kept in least recently used order and the oldest one is dropped once the cache is full.
+ * */
+@Component
+public class CourtNotFoundCache {
+    private static final Logger log = LoggerFactory.getLogger(CourtNotFoundCache.class);
+
+    // Hit rate is logged once per this many lookups
+    private static final long LOG_INTERVAL = 10000;
+
+    private final long ttlMillis;
+
+    private final Map<Long, Long> expiresAt;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public CourtNotFoundCache(@Value("${courts.not-found-cache.ttl-ms}") long ttlMillis,
+                              @Value("${courts.not-found-cache.max-entries}") int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.expiresAt = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /*
+     * Returns whether the court is known not to exist, counting the lookup as a hit or a miss.
+     * */
+    public boolean isNotFound(long courtId) {
+        boolean notFound;
+
+        synchronized (this) {
+            Long expiry = expiresAt.get(courtId);
+            notFound = expiry != null && expiry > System.currentTimeMillis();
+            if (expiry != null && !notFound) {
+                expiresAt.remove(courtId);
+            }
+        }
+
+        long lookups = notFound
+                ? hits.incrementAndGet() + misses.get()
+                : misses.incrementAndGet() + hits.get();
+        if (lookups % LOG_INTERVAL == 0) {
+            log.info("Court not found cache: {} entries, hit rate {}", size(), String.format("%.3f", getHitRate()));
+        }
+
+        return notFound;
+    }
+
+    public synchronized void put(long courtId) {
+        expiresAt.put(courtId, System.currentTimeMillis() + ttlMillis);
+    }
+
+    /*
+     * Forgets IDs that turned out to exist.
+     * */
+    public synchronized void removeAll(Collection<Long> courtIds) {
+        if (!expiresAt.isEmpty()) {
+            courtIds.forEach(expiresAt::remove);
+        }
+    }
+
+    public synchronized int size() {
+        return expiresAt.size();
+    }
+
+    public synchronized void clear() {
+        expiresAt.clear();
+        hits.set(0);
+        misses.set(0);
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+}
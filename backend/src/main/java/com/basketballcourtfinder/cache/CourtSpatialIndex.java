@@ -0,0 +1,244 @@
+package com.basketballcourtfinder.cache;
+
+import com.basketballcourtfinder.dto.CourtLocation;
+import com.basketballcourtfinder.entity.BasketballCourt;
+import com.basketballcourtfinder.repository.BasketballCourtRepository;
+import com.basketballcourtfinder.util.GeoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * In-memory grid index over the coordinates of persisted courts, answering radius and bounding box
+ * queries without touching the database.
+ *
+ * Courts are bucketed into fixed-size lat/lon cells. Reads are lock-free, writes are synchronized
+ * since they only happen when courts are saved.
+ * */
+@Component
+public class CourtSpatialIndex {
+    private static final Logger log = LoggerFactory.getLogger(CourtSpatialIndex.class);
+
+    private static final int LOAD_PAGE_SIZE = 10000;
+
+    private final BasketballCourtRepository repository;
+
+    private final double cellDegrees;
+
+    private final boolean loadOnStartup;
+
+    // Court ID -> {lat, lon}
+    private final Map<Long, double[]> locations = new ConcurrentHashMap<>();
+
+    // Cell key -> court IDs in that cell
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    public CourtSpatialIndex(BasketballCourtRepository repository,
+                             @Value("${courts.spatial-index.cell-degrees}") double cellDegrees,
+                             @Value("${courts.spatial-index.load-on-startup}") boolean loadOnStartup) {
+        this.repository = repository;
+        this.cellDegrees = cellDegrees;
+        this.loadOnStartup = loadOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (loadOnStartup) {
+            load();
+        }
+    }
+
+    /*
+     * Loads every persisted court page by page.
+     * */
+    public void load() {
+        Pageable pageable = PageRequest.of(0, LOAD_PAGE_SIZE);
+        Slice<CourtLocation> slice;
+
+        do {
+            slice = repository.findAllLocations(pageable);
+            slice.forEach(location -> put(location.getId(), location.getLat(), location.getLon()));
+            pageable = slice.nextPageable();
+        } while (slice.hasNext());
+
+        log.info("Loaded {} courts into the spatial index", locations.size());
+    }
+
+    public void put(BasketballCourt court) {
+        put(court.getId(), court.getLat(), court.getLon());
+    }
+
+    public void putAll(Iterable<BasketballCourt> courts) {
+        courts.forEach(this::put);
+    }
+
+    /*
+     * Adds or moves a court. Courts without coordinates are not indexed.
+     * */
+    public synchronized void put(long id, double lat, double lon) {
+        if (lat == 0 && lon == 0) {
+            remove(id);
+            return;
+        }
+
+        double[] previous = locations.put(id, new double[] { lat, lon });
+        long cell = cellKey(lat, lon);
+
+        if (previous != null) {
+            long previousCell = cellKey(previous[0], previous[1]);
+            if (previousCell == cell) {
+                return;
+            }
+            removeFromCell(previousCell, id);
+        }
+
+        cells.computeIfAbsent(cell, k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    public synchronized void remove(long id) {
+        double[] previous = locations.remove(id);
+        if (previous != null) {
+            removeFromCell(cellKey(previous[0], previous[1]), id);
+        }
+    }
+
+    public synchronized void clear() {
+        locations.clear();
+        cells.clear();
+    }
+
+    public boolean contains(long id) {
+        return locations.containsKey(id);
+    }
+
+    public int size() {
+        return locations.size();
+    }
+
+    /*
+     * Returns the IDs of all indexed courts within the given distance in meters of a point.
+     * */
+    public List<Long> withinRadius(double latitude, double longitude, double meters) {
+        double[] box = GeoUtils.boundingBox(latitude, longitude, meters);
+
+        List<Long> result = new ArrayList<>();
+        forEachInBounds(box[0], box[1], box[2], box[3],
+                (id, location) -> {
+                    if (GeoUtils.distance(latitude, longitude, location[0], location[1]) <= meters) {
+                        result.add(id);
+                    }
+                });
+
+        return result;
+    }
+
+    /*
+     * Returns the distance in meters from a point of every indexed court within that distance, keyed by
+     * court ID.
+     * */
+    public Map<Long, Double> distancesWithinRadius(double latitude, double longitude, double meters) {
+        double[] box = GeoUtils.boundingBox(latitude, longitude, meters);
+
+        Map<Long, Double> result = new HashMap<>();
+        forEachInBounds(box[0], box[1], box[2], box[3],
+                (id, location) -> {
+                    double distance = GeoUtils.distance(latitude, longitude, location[0], location[1]);
+                    if (distance <= meters) {
+                        result.put(id, distance);
+                    }
+                });
+
+        return result;
+    }
+
+    /*
+     * Returns the IDs of all indexed courts inside a bounding box.
+     * */
+    public List<Long> withinBounds(double minLat, double minLon, double maxLat, double maxLon) {
+        List<Long> result = new ArrayList<>();
+        forEachInBounds(minLat, minLon, maxLat, maxLon, (id, location) -> result.add(id));
+        return result;
+    }
+
+    private interface LocationVisitor {
+        void visit(long id, double[] location);
+    }
+
+    private void forEachInBounds(double minLat, double minLon, double maxLat, double maxLon,
+                                 LocationVisitor visitor) {
+        minLat = Math.max(-90, minLat);
+        maxLat = Math.min(90, maxLat);
+        minLon = Math.max(-180, minLon);
+        maxLon = Math.min(180, maxLon);
+
+        int minRow = cellIndex(minLat);
+        int maxRow = cellIndex(maxLat);
+        int minCol = cellIndex(minLon);
+        int maxCol = cellIndex(maxLon);
+
+        // For very large boxes it is cheaper to scan the occupied cells than to probe every empty one
+        long cellCount = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+        if (cellCount > cells.size()) {
+            for (Set<Long> ids : cells.values()) {
+                visitCell(ids, minLat, minLon, maxLat, maxLon, visitor);
+            }
+            return;
+        }
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                Set<Long> ids = cells.get(cellKey(row, col));
+                if (ids != null) {
+                    visitCell(ids, minLat, minLon, maxLat, maxLon, visitor);
+                }
+            }
+        }
+    }
+
+    private void visitCell(Set<Long> ids, double minLat, double minLon, double maxLat, double maxLon,
+                           LocationVisitor visitor) {
+        for (Long id : ids) {
+            double[] location = locations.get(id);
+            if (location != null
+                    && location[0] >= minLat && location[0] <= maxLat
+                    && location[1] >= minLon && location[1] <= maxLon) {
+                visitor.visit(id, location);
+            }
+        }
+    }
+
+    private void removeFromCell(long cell, long id) {
+        Set<Long> ids = cells.get(cell);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                cells.remove(cell);
+            }
+        }
+    }
+
+    private int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private long cellKey(double lat, double lon) {
+        return cellKey(cellIndex(lat), cellIndex(lon));
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
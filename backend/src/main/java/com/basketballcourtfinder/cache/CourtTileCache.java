@@ -0,0 +1,154 @@
+package com.basketballcourtfinder.cache;
+
+import com.basketballcourtfinder.util.GeoUtils;
+import com.basketballcourtfinder.util.Geohash;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Remembers which court IDs Overpass returned for a geohash tile so that nearby "around" requests
+ * can be answered without another upstream call.
+ *
+ * A tile is a geohash cell paired with a radius bucket. The Overpass query for a tile is centered on
+ * the cell and its radius covers the whole cell plus the bucket, so every point inside the cell can
+ * reuse the same result for any range up to the bucket size.
+ * */
+@Component
+public class CourtTileCache {
+    // Smallest radius bucket in meters, larger ranges round up to the next power of two multiple
+    private static final int MIN_RADIUS_BUCKET = 250;
+
+    private final long ttlMillis;
+
+    private final int maxTiles;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public CourtTileCache(@Value("${courts.tile-cache.ttl-ms}") long ttlMillis,
+                          @Value("${courts.tile-cache.max-tiles}") int maxTiles) {
+        this.ttlMillis = ttlMillis;
+        this.maxTiles = maxTiles;
+    }
+
+    @Getter
+    public static class Tile {
+        private final String key;
+        private final double latitude;
+        private final double longitude;
+        private final int radius;
+
+        private Tile(String key, double latitude, double longitude, int radius) {
+            this.key = key;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.radius = radius;
+        }
+    }
+
+    private static class Entry {
+        private final Set<Long> courtIds;
+        private final long expiresAt;
+
+        private Entry(Set<Long> courtIds, long expiresAt) {
+            this.courtIds = courtIds;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    /*
+     * Finds the tile that covers a circle of the given range around a point.
+     * */
+    public Tile tileFor(double latitude, double longitude, int range) {
+        int bucket = radiusBucket(range);
+        String fullHash = Geohash.encode(latitude, longitude, Geohash.MAX_PRECISION);
+
+        // Picks the largest cell whose half diagonal is at most half the bucket, so the query radius
+        // never grows past 1.5x the bucket
+        for (int precision = 1; precision <= Geohash.MAX_PRECISION; precision++) {
+            String hash = fullHash.substring(0, precision);
+            double[] bounds = Geohash.bounds(hash);
+            double centerLat = (bounds[0] + bounds[2]) / 2;
+            double centerLon = (bounds[1] + bounds[3]) / 2;
+            double halfDiagonal = Math.max(
+                    GeoUtils.distance(centerLat, centerLon, bounds[0], bounds[1]),
+                    GeoUtils.distance(centerLat, centerLon, bounds[2], bounds[3]));
+
+            if (halfDiagonal <= bucket / 2.0 || precision == Geohash.MAX_PRECISION) {
+                return new Tile(hash + "/" + bucket, centerLat, centerLon,
+                        bucket + (int) Math.ceil(halfDiagonal));
+            }
+        }
+
+        throw new IllegalStateException("Unreachable");
+    }
+
+    /*
+     * Returns the court IDs cached for a tile, or null if the tile was never fetched or has expired.
+     * */
+    public Set<Long> get(Tile tile) {
+        Entry entry = entries.get(tile.getKey());
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(tile.getKey(), entry);
+            return null;
+        }
+
+        return entry.courtIds;
+    }
+
+    /*
+     * Stores the court IDs returned by Overpass for a tile.
+     * */
+    public void put(Tile tile, Collection<Long> courtIds) {
+        long now = System.currentTimeMillis();
+
+        if (entries.size() >= maxTiles) {
+            evict(now);
+        }
+
+        entries.put(tile.getKey(), new Entry(Set.copyOf(courtIds), now + ttlMillis));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /*
+     * Drops expired tiles, and the oldest tile if the cache is still full. Only runs after an Overpass
+     * round-trip, so a linear scan is cheap in comparison.
+     * */
+    private void evict(long now) {
+        entries.entrySet().removeIf(e -> e.getValue().isExpired(now));
+
+        if (entries.size() >= maxTiles) {
+            entries.entrySet().stream()
+                    .min((a, b) -> Long.compare(a.getValue().expiresAt, b.getValue().expiresAt))
+                    .ifPresent(oldest -> entries.remove(oldest.getKey(), oldest.getValue()));
+        }
+    }
+
+    private static int radiusBucket(int range) {
+        int bucket = MIN_RADIUS_BUCKET;
+        while (bucket < range && bucket < Integer.MAX_VALUE / 2) {
+            bucket *= 2;
+        }
+        return bucket;
+    }
+}
@@ -0,0 +1,172 @@
+package com.basketballcourtfinder.client;
+
+import com.basketballcourtfinder.exceptions.OverpassUnavailableException;
+import com.basketballcourtfinder.jsonmapping.OverpassResponse;
+import com.basketballcourtfinder.jsonmapping.OverpassStreamReader;
+import com.basketballcourtfinder.util.CircuitBreaker;
+import com.basketballcourtfinder.util.SingleFlight;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Calls the Overpass API off the request threads.
+ *
+ * At most a fixed number of requests are in flight at once, callers beyond that fail fast instead of
+ * queueing behind a slow upstream. Every call also has a deadline, so a caller never waits longer than
+ * the configured timeout even if the underlying HTTP request is still running. Connect and read
+ * timeouts come from the spring.http.client properties applied to the RestClient builder.
+ *
+ * Repeated failures open a circuit breaker, after which calls fail immediately until a trial call
+ * succeeds.
+ * */
+@Component
+public class OverpassClient {
+    private final RestClient restClient;
+
+    private final String baseUrl;
+
+    private final Semaphore permits;
+
+    private final ExecutorService executor;
+
+    private final long requestTimeoutMillis;
+
+    private final CircuitBreaker circuitBreaker;
+
+    // Identical queries issued concurrently share a single upstream request
+    private final SingleFlight<String, List<OverpassResponse.Element>> inFlight = new SingleFlight<>();
+
+    public OverpassClient(RestClient.Builder restClientBuilder,
+                          @Value("${overpass.base-url}") String baseUrl,
+                          @Value("${overpass.max-concurrent-requests}") int maxConcurrentRequests,
+                          @Value("${overpass.request-timeout-ms}") long requestTimeoutMillis,
+                          @Value("${overpass.circuit-breaker.failure-threshold}") int failureThreshold,
+                          @Value("${overpass.circuit-breaker.open-ms}") long openMillis) {
+        this.restClient = restClientBuilder.build();
+        this.baseUrl = baseUrl;
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.requestTimeoutMillis = requestTimeoutMillis;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openMillis);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConcurrentRequests, runnable -> {
+            Thread thread = new Thread(runnable, "overpass-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /*
+     * Fetches the elements returned by an Overpass QL query, joining an identical request if one is
+     * already in flight. The future fails with OverpassUnavailableException when the circuit is open, no
+     * permit is free, the deadline passes or the request itself fails.
+     * */
+    public CompletableFuture<List<OverpassResponse.Element>> fetch(String query) {
+        return inFlight.execute(query, () -> call(baseUrl + "?data=" + query));
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /*
+     * Registers a callback to run when Overpass answers again after the circuit was open.
+     * */
+    public void onRecovery(Runnable listener) {
+        circuitBreaker.onRecovery(listener);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<List<OverpassResponse.Element>> call(String apiUrl) {
+        if (!permits.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new OverpassUnavailableException("Too many concurrent Overpass requests"));
+        }
+
+        // Checked after the permit so that a rejected call never leaves a half open trial unresolved
+        if (!circuitBreaker.tryAcquire()) {
+            permits.release();
+            return CompletableFuture.failedFuture(
+                    new OverpassUnavailableException("Overpass is unavailable, circuit is open"));
+        }
+
+        CompletableFuture<List<OverpassResponse.Element>> request;
+        try {
+            // The permit is held until the HTTP call returns, not until the deadline, so timed out calls
+            // still count against the limit while they drain
+            request = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return get(apiUrl);
+                } finally {
+                    permits.release();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            circuitBreaker.recordFailure();
+            return CompletableFuture.failedFuture(new OverpassUnavailableException("Overpass client is shut down", e));
+        }
+
+        CompletableFuture<List<OverpassResponse.Element>> result = new CompletableFuture<>();
+        request.orTimeout(requestTimeoutMillis, TimeUnit.MILLISECONDS).whenComplete((elements, error) -> {
+            if (error == null) {
+                circuitBreaker.recordSuccess();
+                result.complete(elements);
+            } else {
+                circuitBreaker.recordFailure();
+                result.completeExceptionally(translate(error));
+            }
+        });
+
+        return result;
+    }
+
+    private List<OverpassResponse.Element> get(String apiUrl) {
+        return restClient.get()
+                .uri(apiUrl)
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        throw new OverpassUnavailableException("Overpass responded with " + response.getStatusCode());
+                    }
+
+                    List<OverpassResponse.Element> elements = new ArrayList<>();
+                    String remark = OverpassStreamReader.read(response.getBody(), elements::add);
+
+                    // A remark means the query failed on the server and the elements are incomplete, so
+                    // the result must not be cached as if the area or IDs had nothing in it
+                    if (remark != null) {
+                        throw new OverpassUnavailableException("Overpass query failed: " + remark);
+                    }
+                    return elements;
+                });
+    }
+
+    private Throwable translate(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+
+        if (cause instanceof TimeoutException) {
+            return new OverpassUnavailableException(
+                    "Overpass did not respond within " + requestTimeoutMillis + " ms", cause);
+        }
+        if (cause instanceof RestClientException) {
+            return new OverpassUnavailableException("Overpass request failed", cause);
+        }
+        return cause;
+    }
+}
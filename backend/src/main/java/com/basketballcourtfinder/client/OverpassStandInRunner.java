@@ -0,0 +1,39 @@
+package com.basketballcourtfinder.client;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/*
+ * Starts an OverpassStandInServer alongside the application when overpass.stand-in.fixture is set, so
+ * load runs can use it with overpass.base-url=http://localhost:<port>/api/interpreter.
+ * */
+@Component
+@ConditionalOnProperty(name = "overpass.stand-in.fixture")
+public class OverpassStandInRunner {
+    private static final Logger log = LoggerFactory.getLogger(OverpassStandInRunner.class);
+
+    private final OverpassStandInServer server;
+
+    public OverpassStandInRunner(@Value("${overpass.stand-in.fixture}") String fixture,
+                                 @Value("${overpass.stand-in.port:8090}") int port,
+                                 @Value("${overpass.stand-in.latency-ms:0}") long latencyMillis,
+                                 @Value("${overpass.stand-in.error-rate:0}") double errorRate,
+                                 @Value("${overpass.stand-in.error-status:429}") int errorStatus) throws IOException {
+        this.server = new OverpassStandInServer(OverpassStandInServer.loadFixture(Path.of(fixture)),
+                latencyMillis, errorRate, errorStatus).start(port);
+
+        log.info("Overpass stand-in serving {} at {}", fixture, server.getBaseUrl());
+    }
+
+    @PreDestroy
+    public void stop() {
+        server.close();
+    }
+}
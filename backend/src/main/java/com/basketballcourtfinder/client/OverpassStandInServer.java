@@ -0,0 +1,210 @@
+package com.basketballcourtfinder.client;
+
+import com.basketballcourtfinder.jsonmapping.OverpassResponse;
+import com.basketballcourtfinder.jsonmapping.OverpassStreamReader;
+import com.basketballcourtfinder.util.GeoUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Minimal Overpass API stand-in serving courts from a fixture, for integration tests and load runs
+ * without hitting overpass-api.de. Point overpass.base-url at getBaseUrl() to use it.
+ *
+ * Understands the two query shapes the backend sends: around:radius,lat,lon area queries and way(id)
+ * or way(id:1,2,3) lookups. Responses can be delayed and a share of requests can be failed to simulate
+ * a slow or overloaded upstream.
+ * */
+public class OverpassStandInServer implements AutoCloseable {
+    private static final Pattern AROUND = Pattern.compile("around:([\\d.]+),(-?[\\d.]+),(-?[\\d.]+)");
+
+    private static final Pattern WAY_IDS = Pattern.compile("way\\((?:id:)?([\\d,\\s]+)\\)");
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Map<Long, OverpassResponse.Element> elements = new LinkedHashMap<>();
+
+    private final long latencyMillis;
+
+    private final double errorRate;
+
+    private final int errorStatus;
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    /*
+     * Creates a stand-in answering from the given elements after latencyMillis, failing the given share
+     * of requests (0 to 1) with errorStatus.
+     * */
+    public OverpassStandInServer(Collection<OverpassResponse.Element> fixture, long latencyMillis,
+                                 double errorRate, int errorStatus) {
+        fixture.forEach(element -> elements.putIfAbsent(element.getId(), element));
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+    }
+
+    /*
+     * Reads a fixture in Overpass JSON format, keeping only elements with a center.
+     * */
+    public static List<OverpassResponse.Element> loadFixture(Path file) throws IOException {
+        List<OverpassResponse.Element> fixture = new ArrayList<>();
+
+        try (InputStream in = Files.newInputStream(file)) {
+            OverpassStreamReader.read(in, element -> {
+                if (element.getCenter() != null) {
+                    fixture.add(element);
+                }
+            });
+        }
+
+        return fixture;
+    }
+
+    /*
+     * Starts listening on the given port, 0 picks a free one.
+     * */
+    public synchronized OverpassStandInServer start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/api/interpreter", this::handle);
+        server.start();
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/api/interpreter";
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requestCount.incrementAndGet();
+
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(errorStatus, -1);
+                return;
+            }
+
+            String query = readQuery(exchange);
+            List<OverpassResponse.Element> matches = query == null ? null : match(query);
+
+            if (matches == null) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+
+            // "out tags" alone returns no geometry, like the real API
+            boolean withCenter = query.contains("out center");
+            List<Map<String, Object>> body = new ArrayList<>(matches.size());
+            for (OverpassResponse.Element element : matches) {
+                body.add(toJson(element, withCenter));
+            }
+
+            byte[] bytes = OBJECT_MAPPER.writeValueAsBytes(Map.of("elements", body));
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static String readQuery(HttpExchange exchange) throws IOException {
+        String rawQuery = "POST".equals(exchange.getRequestMethod())
+                ? new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)
+                : exchange.getRequestURI().getRawQuery();
+
+        if (rawQuery == null) {
+            return null;
+        }
+
+        for (String parameter : rawQuery.split("&")) {
+            if (parameter.startsWith("data=")) {
+                return URLDecoder.decode(parameter.substring(5), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private List<OverpassResponse.Element> match(String query) {
+        Matcher around = AROUND.matcher(query);
+        if (around.find()) {
+            double radius = Double.parseDouble(around.group(1));
+            double latitude = Double.parseDouble(around.group(2));
+            double longitude = Double.parseDouble(around.group(3));
+
+            return elements.values().stream()
+                    .filter(element -> GeoUtils.distance(latitude, longitude,
+                            element.getCenter().getLat(), element.getCenter().getLon()) <= radius)
+                    .toList();
+        }
+
+        Matcher ways = WAY_IDS.matcher(query);
+        if (ways.find()) {
+            List<OverpassResponse.Element> result = new ArrayList<>();
+            for (String id : ways.group(1).split(",")) {
+                OverpassResponse.Element element = elements.get(Long.parseLong(id.trim()));
+                if (element != null) {
+                    result.add(element);
+                }
+            }
+            return result;
+        }
+
+        return null;
+    }
+
+    private static Map<String, Object> toJson(OverpassResponse.Element element, boolean withCenter) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("type", element.getType() != null ? element.getType() : "way");
+        json.put("id", element.getId());
+        if (withCenter) {
+            json.put("center", Map.of("lat", element.getCenter().getLat(), "lon", element.getCenter().getLon()));
+        }
+        json.put("tags", element.getTags() != null ? element.getTags() : Map.of());
+        return json;
+    }
+}
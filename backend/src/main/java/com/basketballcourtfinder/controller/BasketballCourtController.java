@@ -1,13 +1,16 @@
 package com.basketballcourtfinder.controller;
 
+import com.basketballcourtfinder.dto.CompactCourtsDTO;
 import com.basketballcourtfinder.dto.CourtsDTO;
 import com.basketballcourtfinder.entity.BasketballCourt;
+import com.basketballcourtfinder.exceptions.OverpassUnavailableException;
 import com.basketballcourtfinder.service.BasketballCourtService;
 import com.basketballcourtfinder.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Set;
 
 @RestController
@@ -22,18 +25,63 @@ public class BasketballCourtController {
     }
 
     @GetMapping("")
-    public ResponseEntity<BasketballCourt> getCourt(@RequestParam long court_id) {
-        BasketballCourt court = courtService.getCourt(court_id);
+    public ResponseEntity<?> getCourt(@RequestParam long court_id) {
+        try {
+            BasketballCourt court = courtService.getCourt(court_id);
+
+            return ResponseEntity.ok().body(court);
+        } catch (OverpassUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
 
-        return ResponseEntity.ok().body(court);
+    @GetMapping("/batch")
+    public ResponseEntity<?> getCourts(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(courtService.getCourts(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/around")
     public ResponseEntity<?> getCourts(@ModelAttribute CourtsDTO courtsDTO) {
-        Set<BasketballCourt> courts = courtService.getCourtsInArea(courtsDTO.getLatitude(),
-                courtsDTO.getLongitude(), courtsDTO.getRange());
+        try {
+            String view = courtsDTO.getView() == null ? "full" : courtsDTO.getView();
+
+            // Paging is opt-in, without a limit every court in range is returned as before
+            if (courtsDTO.getLimit() != null) {
+                if (!view.equals("full")) {
+                    return ResponseEntity.badRequest().body("Paged results only support the full view.");
+                }
+                return ResponseEntity.ok(courtService.getNearestCourts(courtsDTO.getLatitude(),
+                        courtsDTO.getLongitude(), courtsDTO.getRange(), courtsDTO.getLimit(), courtsDTO.getCursor()));
+            }
+
+            switch (view) {
+                case "marker" -> {
+                    return ResponseEntity.ok(courtService.getCourtMarkersInArea(courtsDTO.getLatitude(),
+                            courtsDTO.getLongitude(), courtsDTO.getRange()));
+                }
+                case "compact" -> {
+                    return ResponseEntity.ok(CompactCourtsDTO.of(courtService.getCourtMarkersInArea(
+                            courtsDTO.getLatitude(), courtsDTO.getLongitude(), courtsDTO.getRange())));
+                }
+                case "full" -> {
+                    Set<BasketballCourt> courts = courtService.getCourtsInArea(courtsDTO.getLatitude(),
+                            courtsDTO.getLongitude(), courtsDTO.getRange());
 
-        return ResponseEntity.ok(courts);
+                    return ResponseEntity.ok(courts);
+                }
+                default -> {
+                    return ResponseEntity.badRequest().body("View must be one of full, marker or compact.");
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OverpassUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
     }
 
     @PatchMapping("/{id}")
@@ -10,6 +10,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/review")
 public class ReviewController {
@@ -25,13 +27,24 @@ public class ReviewController {
         return ResponseEntity.ok(reviewService.getCourtRating(courtId));
     }
 
+    @GetMapping("/ratings")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<?> getCourtRatings(@RequestParam List<Long> courtIds) {
+        try {
+            return ResponseEntity.ok(reviewService.getCourtRatings(courtIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<?> getReviews(
             @RequestParam Long courtId,
             @RequestParam(defaultValue = "1") Integer page,
             @RequestParam(defaultValue = "10") Integer reviewsPerPage,
-            @RequestParam(defaultValue = "NEWEST") SortMethod sortMethod) {
+            @RequestParam(defaultValue = "NEWEST") SortMethod sortMethod,
+            @RequestParam(required = false) String cursor) {
         // User ID Found from Token
         Long userId;
         try {
@@ -40,7 +53,11 @@ public class ReviewController {
             userId = null;
         }
 
-        return ResponseEntity.ok(reviewService.findCourtReviews(courtId, userId, page, reviewsPerPage, sortMethod));
+        try {
+            return ResponseEntity.ok(reviewService.findCourtReviews(courtId, userId, page, reviewsPerPage, sortMethod, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PostMapping()
@@ -0,0 +1,27 @@
+package com.basketballcourtfinder.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/*
+* Court markers as rows of values in the order given by fields, avoiding repeated keys in the JSON.
+* */
+@Data
+@AllArgsConstructor
+public class CompactCourtsDTO {
+    private static final List<String> FIELDS = List.of("id", "lat", "lon", "name");
+
+    private List<String> fields;
+
+    private List<Object[]> rows;
+
+    public static CompactCourtsDTO of(List<CourtMarker> markers) {
+        List<Object[]> rows = markers.stream()
+                .map(marker -> new Object[] { marker.getId(), marker.getLat(), marker.getLon(), marker.getName() })
+                .toList();
+
+        return new CompactCourtsDTO(FIELDS, rows);
+    }
+}
@@ -0,0 +1,10 @@
+package com.basketballcourtfinder.dto;
+
+/*
+* Projected court coordinates for building the spatial index.
+* */
+public interface CourtLocation {
+    long getId();
+    double getLat();
+    double getLon();
+}
@@ -0,0 +1,8 @@
+package com.basketballcourtfinder.dto;
+
+/*
+* Projected court with just what a map marker needs.
+* */
+public interface CourtMarker extends CourtLocation {
+    String getName();
+}
@@ -0,0 +1,15 @@
+package com.basketballcourtfinder.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CourtPageDTO {
+    private List<NearbyCourtDTO> courts;
+
+    // Null on the last page
+    private String nextCursor;
+}
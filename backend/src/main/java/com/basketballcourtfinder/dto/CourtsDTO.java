@@ -8,6 +8,13 @@ public class CourtsDTO {
     double longitude;
     int range;
 
+    // Optional, when set the nearest courts are returned a page at a time
+    Integer limit;
+    String cursor;
+
+    // Optional, "marker" or "compact" for slim map payloads, full courts otherwise
+    String view;
+
     public CourtsDTO(double latitude, double longitude, int range) {
         this.latitude = latitude;
         this.longitude = longitude;
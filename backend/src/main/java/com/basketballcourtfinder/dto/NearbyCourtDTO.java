@@ -0,0 +1,19 @@
+package com.basketballcourtfinder.dto;
+
+import com.basketballcourtfinder.entity.BasketballCourt;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/*
+ * A court with its distance in meters from the requested point, serialized as the court's fields plus
+ * "distance".
+ * */
+@Data
+@AllArgsConstructor
+public class NearbyCourtDTO {
+    @JsonUnwrapped
+    private BasketballCourt court;
+
+    private double distance;
+}
@@ -0,0 +1,21 @@
+package com.basketballcourtfinder.dto;
+
+import com.basketballcourtfinder.entity.VoteType;
+
+import java.util.Date;
+
+/*
+* Projected review with only the author columns needed to list it, and the requesting user's vote on it.
+* */
+public interface ReviewListing {
+    long getReviewId();
+    String getBody();
+    int getRating();
+    Date getCreatedAt();
+    int getVoteCount();
+    boolean isEdited();
+    String getAuthorDisplayName();
+    int getAuthorUpvoteCount();
+    int getAuthorDownvoteCount();
+    VoteType getUserVote();
+}
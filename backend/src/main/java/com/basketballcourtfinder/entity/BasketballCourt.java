@@ -1,19 +1,31 @@
 package com.basketballcourtfinder.entity;
 
+import com.basketballcourtfinder.enums.CourtField;
 import com.basketballcourtfinder.jsonmapping.OverpassResponse;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
+import java.time.Instant;
 import java.util.Objects;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_basketball_court_lat_lon", columnList = "lat, lon"),
+        // Serves the refresher's stalest-first batch without a scan and filesort
+        @Index(name = "idx_basketball_court_last_synced_at", columnList = "last_synced_at, id")
+})
+@DynamicUpdate
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -57,6 +69,16 @@ public class BasketballCourt {
     private String opening_hours;
 
     private String phone;
+
+    // When the OSM tags were last fetched from Overpass, null if never
+    @JsonIgnore
+    private Instant lastSyncedAt;
+
+    // Bitmask of CourtField values edited by users
+    @JsonIgnore
+    @Column(nullable = false)
+    private int editedFields;
+
     public BasketballCourt(OverpassResponse.Element element) {
         this.id = element.getId();
         if (element.getCenter() != null) {
@@ -75,6 +97,7 @@ public class BasketballCourt {
         this.opening_hours = element.getTag("opening_hours");
         this.phone = element.getTag("phone");
         this.indoor = null;
+        this.lastSyncedAt = Instant.now();
     }
 
 
@@ -82,5 +105,13 @@ public class BasketballCourt {
         this.id = id;
         this.name = name;
     }
+
+    public void markEdited(CourtField field) {
+        this.editedFields |= field.mask();
+    }
+
+    public boolean isEdited(CourtField field) {
+        return (this.editedFields & field.mask()) != 0;
+    }
 }
 
@@ -0,0 +1,32 @@
+package com.basketballcourtfinder.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Running rating totals for a court, kept in step with its reviews so the average can be read
+ * without loading them.
+ * */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CourtRating {
+    @Id
+    private long courtId;
+
+    @Column(nullable = false)
+    private long ratingSum;
+
+    @Column(nullable = false)
+    private int reviewCount;
+
+    public double getAverage() {
+        if (reviewCount == 0) {
+            return 0.0;
+        }
+        return Math.round((double) ratingSum / reviewCount * 100.0) / 100.0;
+    }
+}
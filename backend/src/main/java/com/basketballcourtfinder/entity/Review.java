@@ -1,5 +1,6 @@
 package com.basketballcourtfinder.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -7,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.Date;
 
@@ -14,19 +16,29 @@ import java.util.Date;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@DynamicUpdate
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_review_court_user", columnNames = { "court_id", "user_id" })
+}, indexes = {
+        @Index(name = "idx_review_court_created_at", columnList = "court_id, created_at"),
+        @Index(name = "idx_review_court_rating", columnList = "court_id, rating")
+})
 public class Review {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long reviewId;
 
-    @ManyToOne
+    // Lazy so that loading reviews never fans out into author and court selects
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="user_id")
     @ToString.Exclude
+    @JsonIgnore
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="court_id")
     @ToString.Exclude
+    @JsonIgnore
     private BasketballCourt court;
 
     private String body;
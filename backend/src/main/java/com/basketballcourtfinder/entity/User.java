@@ -47,6 +47,13 @@ public class User {
     }
 
     public double getTrustScore() {
+        return trustScore(upvoteCount, downvoteCount);
+    }
+
+    /*
+     * Trust score from vote counts alone, so review listings can compute it without loading the user.
+     * */
+    public static double trustScore(int upvoteCount, int downvoteCount) {
         // Calculate the trust score dynamically
         if (upvoteCount + downvoteCount < 10) {
             return 0; // Small number of votes == neutral trust
@@ -0,0 +1,20 @@
+package com.basketballcourtfinder.enums;
+
+/*
+ * Court fields that come from OpenStreetMap tags and can also be edited by users. Edited fields are
+ * kept when a court is refreshed from Overpass.
+ * */
+public enum CourtField {
+    NAME,
+    HOOPS,
+    SURFACE,
+    ADDRESS,
+    AMENITY,
+    WEBSITE,
+    OPENING_HOURS,
+    PHONE;
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+}
@@ -0,0 +1,11 @@
+package com.basketballcourtfinder.exceptions;
+
+public class OverpassUnavailableException extends RuntimeException {
+    public OverpassUnavailableException(String message) {
+        super(message);
+    }
+
+    public OverpassUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
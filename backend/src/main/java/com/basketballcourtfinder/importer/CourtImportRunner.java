@@ -0,0 +1,32 @@
+package com.basketballcourtfinder.importer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/*
+ * Imports courts from the file given by courts.import.file on startup, for example
+ * --courts.import.file=/data/ontario.osm. Runs before the spatial index is loaded, so imported courts
+ * are served right away.
+ * */
+@Component
+@ConditionalOnProperty(name = "courts.import.file")
+public class CourtImportRunner implements ApplicationRunner {
+    private final CourtImporter importer;
+
+    private final Path file;
+
+    public CourtImportRunner(CourtImporter importer, @Value("${courts.import.file}") String file) {
+        this.importer = importer;
+        this.file = Path.of(file);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        importer.importFile(file);
+    }
+}
@@ -0,0 +1,146 @@
+package com.basketballcourtfinder.importer;
+
+import com.basketballcourtfinder.entity.Address;
+import com.basketballcourtfinder.entity.BasketballCourt;
+import com.basketballcourtfinder.jsonmapping.OverpassResponse;
+import com.basketballcourtfinder.jsonmapping.OverpassStreamReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/*
+ * Bulk loads courts from an Overpass JSON dump or an OSM XML extract into the basketball_court table.
+ *
+ * Elements are streamed and written in JDBC batches, so only one batch is held in memory at a time.
+ * Existing rows only get their coordinates refreshed, everything else may have been edited by users.
+ * New rows count as synced at import time and start without user edits.
+ * */
+@Component
+public class CourtImporter {
+    private static final Logger log = LoggerFactory.getLogger(CourtImporter.class);
+
+    private static final String UPSERT_SQL = "INSERT INTO basketball_court " +
+            "(id, lat, lon, name, hoops, surface, house_number, street, city, state, country, postcode, " +
+            "amenity, website, leisure, opening_hours, phone, last_synced_at, edited_fields) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0) " +
+            "ON DUPLICATE KEY UPDATE lat = VALUES(lat), lon = VALUES(lon)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int batchSize;
+
+    public CourtImporter(JdbcTemplate jdbcTemplate, @Value("${courts.import.batch-size}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /*
+     * Imports every court in a file and returns the number of rows written. The format is picked from
+     * the file extension: .json for Overpass JSON, .osm or .xml for OSM XML.
+     * */
+    public long importFile(Path file) throws IOException {
+        String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        Batch batch = new Batch();
+
+        if (fileName.endsWith(".json")) {
+            try (InputStream in = Files.newInputStream(file)) {
+                String remark = OverpassStreamReader.read(in, element -> {
+                    if (isCourt(element)) {
+                        batch.add(element);
+                    }
+                });
+                if (remark != null) {
+                    log.warn("{} may be incomplete, Overpass reported: {}", file, remark);
+                }
+            }
+        } else if (fileName.endsWith(".osm") || fileName.endsWith(".xml")) {
+            OsmXmlStreamReader.read(file, CourtImporter::isCourt, batch::add);
+        } else if (fileName.endsWith(".pbf")) {
+            throw new IllegalArgumentException("PBF extracts are not supported, convert " + file + " to OSM XML first");
+        } else {
+            throw new IllegalArgumentException("Unknown import format: " + file);
+        }
+
+        batch.flush();
+        log.info("Imported {} courts from {}, skipped {} elements", batch.written, file, batch.skipped);
+
+        return batch.written;
+    }
+
+    /*
+     * Matches the same features as the Overpass area query.
+     * */
+    static boolean isCourt(OverpassResponse.Element element) {
+        String amenity = element.getTag("amenity");
+        boolean basketball = Arrays.asList(element.getTag("sport").split(";")).contains("basketball");
+
+        return "community_centre".equals(amenity)
+                || (basketball && ("pitch".equals(element.getTag("leisure")) || "school".equals(amenity)));
+    }
+
+    private class Batch {
+        private final List<Object[]> rows = new ArrayList<>(batchSize);
+        private long written;
+        private long skipped;
+
+        private void add(OverpassResponse.Element element) {
+            BasketballCourt court;
+            try {
+                court = new BasketballCourt(element);
+            } catch (NumberFormatException e) {
+                // Free text in numeric tags such as hoops
+                skipped++;
+                return;
+            }
+
+            // Overpass dumps list each element a second time without its center
+            if (court.getLat() == 0 && court.getLon() == 0) {
+                skipped++;
+                return;
+            }
+
+            rows.add(toRow(court));
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+            written += rows.size();
+            rows.clear();
+
+            if (written % (batchSize * 100L) < batchSize) {
+                log.info("Imported {} courts so far", written);
+            }
+        }
+    }
+
+    private static Object[] toRow(BasketballCourt court) {
+        Address address = court.getAddress();
+
+        return new Object[] {
+                court.getId(), court.getLat(), court.getLon(), court.getName(), court.getHoops(),
+                court.getSurface(), address.getHouse_number(), address.getStreet(), address.getCity(),
+                address.getState(), address.getCountry(), address.getPostcode(), court.getAmenity(),
+                court.getWebsite(), court.getLeisure(), court.getOpening_hours(), court.getPhone(),
+                Timestamp.from(court.getLastSyncedAt())
+        };
+    }
+}
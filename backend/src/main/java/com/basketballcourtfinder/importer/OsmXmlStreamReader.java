@@ -0,0 +1,188 @@
+package com.basketballcourtfinder.importer;
+
+import com.basketballcourtfinder.jsonmapping.OverpassResponse;
+import com.basketballcourtfinder.jsonmapping.OverpassStreamReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/*
+ * Streams ways out of an OSM XML file with StAX.
+ *
+ * Overpass XML output carries a <center> for each way and is read in one pass. Plain OSM extracts only
+ * list node references, so a second pass picks up the coordinates of the nodes used by matching ways and
+ * the center is the middle of their bounding box, the same as Overpass "out center". Only ways accepted
+ * by the filter are kept in memory, so memory grows with the number of courts and not the extract size.
+ * */
+public class OsmXmlStreamReader {
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private static class PendingWay {
+        private final OverpassResponse.Element element;
+        private final long[] nodeRefs;
+
+        private PendingWay(OverpassResponse.Element element, long[] nodeRefs) {
+            this.element = element;
+            this.nodeRefs = nodeRefs;
+        }
+    }
+
+    /*
+     * Reads every way accepted by the filter. Ways with a center are passed on right away, the rest once
+     * their nodes have been resolved.
+     * */
+    public static void read(Path file, Predicate<OverpassResponse.Element> filter,
+                            Consumer<OverpassResponse.Element> consumer) throws IOException {
+        List<PendingWay> pendingWays = new ArrayList<>();
+
+        try (InputStream in = Files.newInputStream(file)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && "way".equals(reader.getLocalName())) {
+                        readWay(reader, filter, consumer, pendingWays);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid OSM XML in " + file, e);
+        }
+
+        if (!pendingWays.isEmpty()) {
+            resolveNodes(file, pendingWays, consumer);
+        }
+    }
+
+    private static void readWay(XMLStreamReader reader, Predicate<OverpassResponse.Element> filter,
+                                Consumer<OverpassResponse.Element> consumer,
+                                List<PendingWay> pendingWays) throws XMLStreamException {
+        OverpassResponse.Element element = new OverpassResponse.Element();
+        element.setType("way");
+        element.setId(Long.parseLong(reader.getAttributeValue(null, "id")));
+
+        Map<String, String> tags = new HashMap<>();
+        List<Long> nodeRefs = new ArrayList<>();
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+
+            if (event == XMLStreamConstants.END_ELEMENT && "way".equals(reader.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            switch (reader.getLocalName()) {
+                case "nd" -> nodeRefs.add(Long.parseLong(reader.getAttributeValue(null, "ref")));
+                case "center" -> {
+                    OverpassResponse.Element.Center center = new OverpassResponse.Element.Center();
+                    center.setLat(Double.parseDouble(reader.getAttributeValue(null, "lat")));
+                    center.setLon(Double.parseDouble(reader.getAttributeValue(null, "lon")));
+                    element.setCenter(center);
+                }
+                case "tag" -> {
+                    String key = reader.getAttributeValue(null, "k");
+                    if (OverpassStreamReader.COURT_TAGS.contains(key)) {
+                        tags.put(key, reader.getAttributeValue(null, "v"));
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        element.setTags(tags);
+        if (!filter.test(element)) {
+            return;
+        }
+
+        if (element.getCenter() != null || nodeRefs.isEmpty()) {
+            consumer.accept(element);
+        } else {
+            pendingWays.add(new PendingWay(element, nodeRefs.stream().mapToLong(Long::longValue).toArray()));
+        }
+    }
+
+    private static void resolveNodes(Path file, List<PendingWay> pendingWays,
+                                     Consumer<OverpassResponse.Element> consumer) throws IOException {
+        Map<Long, double[]> nodes = new HashMap<>();
+        for (PendingWay way : pendingWays) {
+            for (long ref : way.nodeRefs) {
+                nodes.put(ref, null);
+            }
+        }
+
+        try (InputStream in = Files.newInputStream(file)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+
+                    String name = reader.getLocalName();
+                    if ("node".equals(name)) {
+                        long id = Long.parseLong(reader.getAttributeValue(null, "id"));
+                        if (nodes.containsKey(id)) {
+                            nodes.put(id, new double[] {
+                                    Double.parseDouble(reader.getAttributeValue(null, "lat")),
+                                    Double.parseDouble(reader.getAttributeValue(null, "lon"))
+                            });
+                        }
+                    } else if ("way".equals(name) || "relation".equals(name)) {
+                        // Extracts list every node before the first way
+                        break;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid OSM XML in " + file, e);
+        }
+
+        for (PendingWay way : pendingWays) {
+            double minLat = Double.MAX_VALUE, minLon = Double.MAX_VALUE;
+            double maxLat = -Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+
+            for (long ref : way.nodeRefs) {
+                double[] node = nodes.get(ref);
+                if (node != null) {
+                    minLat = Math.min(minLat, node[0]);
+                    maxLat = Math.max(maxLat, node[0]);
+                    minLon = Math.min(minLon, node[1]);
+                    maxLon = Math.max(maxLon, node[1]);
+                }
+            }
+
+            // Ways whose nodes are all outside the extract keep no center and are dropped by the importer
+            if (minLat <= maxLat) {
+                OverpassResponse.Element.Center center = new OverpassResponse.Element.Center();
+                center.setLat((minLat + maxLat) / 2);
+                center.setLon((minLon + maxLon) / 2);
+                way.element.setCenter(center);
+            }
+
+            consumer.accept(way.element);
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
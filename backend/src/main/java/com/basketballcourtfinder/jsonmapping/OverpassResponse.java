@@ -11,6 +11,7 @@ public class OverpassResponse {
     private String generator;
     private Osm3s osm3s;
     private List<Element> elements;
+    private String remark;
 
     @Data
     public static class Osm3s {
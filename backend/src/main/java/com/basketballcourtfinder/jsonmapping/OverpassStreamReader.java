@@ -0,0 +1,122 @@
+package com.basketballcourtfinder.jsonmapping;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/*
+ * Streams the "elements" array of an Overpass JSON response token by token, handing each element to a
+ * consumer as soon as it is read instead of materializing the whole OverpassResponse.
+ *
+ * Only the tags read by BasketballCourt and Address, plus sport for filtering, are kept, everything else
+ * is skipped.
+ * */
+public class OverpassStreamReader {
+    public static final Set<String> COURT_TAGS = Set.of(
+            "name", "hoops", "surface", "amenity", "website", "leisure", "sport", "opening_hours", "phone",
+            "addr:housenumber", "addr:street", "addr:city", "addr:province", "addr:state", "addr:country",
+            "addr:postcode");
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /*
+     * Reads every element of the response, in order, and returns its remark or null if there is none.
+     *
+     * Overpass reports a query that timed out or ran out of memory on the server with status 200 and a
+     * remark, usually after the elements, which are then empty or partial.
+     * */
+    public static String read(InputStream in, Consumer<OverpassResponse.Element> consumer) throws IOException {
+        String remark = null;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected an Overpass JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if ("elements".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        consumer.accept(readElement(parser));
+                    }
+                } else if ("remark".equals(field) && value == JsonToken.VALUE_STRING) {
+                    remark = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return remark;
+    }
+
+    private static OverpassResponse.Element readElement(JsonParser parser) throws IOException {
+        OverpassResponse.Element element = new OverpassResponse.Element();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            switch (field) {
+                case "type" -> element.setType(parser.getValueAsString());
+                case "id" -> element.setId(parser.getValueAsLong());
+                case "center" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        element.setCenter(readCenter(parser));
+                    }
+                }
+                case "tags" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        element.setTags(readTags(parser));
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        return element;
+    }
+
+    private static OverpassResponse.Element.Center readCenter(JsonParser parser) throws IOException {
+        OverpassResponse.Element.Center center = new OverpassResponse.Element.Center();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+
+            switch (field) {
+                case "lat" -> center.setLat(parser.getValueAsDouble());
+                case "lon" -> center.setLon(parser.getValueAsDouble());
+                default -> parser.skipChildren();
+            }
+        }
+
+        return center;
+    }
+
+    private static Map<String, String> readTags(JsonParser parser) throws IOException {
+        Map<String, String> tags = new HashMap<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.currentName();
+            parser.nextToken();
+
+            if (COURT_TAGS.contains(key)) {
+                tags.put(key, parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return tags;
+    }
+}
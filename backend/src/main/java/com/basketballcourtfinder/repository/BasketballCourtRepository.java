@@ -1,9 +1,18 @@
 package com.basketballcourtfinder.repository;
 
+import com.basketballcourtfinder.dto.CourtLocation;
+import com.basketballcourtfinder.dto.CourtMarker;
 import com.basketballcourtfinder.entity.BasketballCourt;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +21,26 @@ public interface BasketballCourtRepository extends JpaRepository<BasketballCourt
     Optional<BasketballCourt> findById(long id);
 
     List<BasketballCourt> findByIdIn(List<Long> ids);
+
+    @Query("SELECT c.id AS id, c.lat AS lat, c.lon AS lon FROM BasketballCourt c ORDER BY c.id")
+    Slice<CourtLocation> findAllLocations(Pageable pageable);
+
+    @Query("SELECT c.id AS id, c.lat AS lat, c.lon AS lon, c.name AS name FROM BasketballCourt c WHERE c.id IN :ids")
+    List<CourtMarker> findMarkersByIdIn(List<Long> ids);
+
+    // Served by the composite (lat, lon) index, callers filter the box down to a radius
+    @Query("SELECT c FROM BasketballCourt c WHERE c.lat BETWEEN :minLat AND :maxLat " +
+            "AND c.lon BETWEEN :minLon AND :maxLon")
+    List<BasketballCourt> findInBounds(double minLat, double minLon, double maxLat, double maxLon);
+
+    // Never synced courts sort first since NULL is the lowest value
+    @Query("SELECT c FROM BasketballCourt c WHERE c.lastSyncedAt IS NULL OR c.lastSyncedAt < :cutoff " +
+            "ORDER BY c.lastSyncedAt, c.id")
+    List<BasketballCourt> findSyncedBefore(Instant cutoff, Pageable pageable);
+
+    // Row locks are held until the caller's transaction ends, so concurrent edits wait instead of being
+    // overwritten
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM BasketballCourt c WHERE c.id IN :ids")
+    List<BasketballCourt> findAllForUpdate(Collection<Long> ids);
 }
@@ -0,0 +1,30 @@
+package com.basketballcourtfinder.repository;
+
+import com.basketballcourtfinder.entity.CourtRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface CourtRatingRepository extends JpaRepository<CourtRating, Long> {
+    // Applied in the database so concurrent reviews on the same court never lose an update. The first
+    // review of a court creates the row, a concurrent first review then updates it instead of failing
+    @Modifying
+    @Query(value = "INSERT INTO court_rating (court_id, rating_sum, review_count) " +
+            "VALUES (:courtId, :ratingDelta, :countDelta) " +
+            "ON DUPLICATE KEY UPDATE rating_sum = rating_sum + :ratingDelta, review_count = review_count + :countDelta",
+            nativeQuery = true)
+    int adjust(Long courtId, long ratingDelta, int countDelta);
+
+    // Creates the totals of every reviewed court that has none yet, from reviews written before the
+    // totals were kept
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO court_rating (court_id, rating_sum, review_count) " +
+            "SELECT r.court_id, SUM(r.rating), COUNT(*) FROM review r " +
+            "WHERE NOT EXISTS (SELECT 1 FROM court_rating c WHERE c.court_id = r.court_id) " +
+            "GROUP BY r.court_id", nativeQuery = true)
+    int backfill();
+}
@@ -1,9 +1,17 @@
 package com.basketballcourtfinder.repository;
 
+import com.basketballcourtfinder.dto.ReviewListing;
 import com.basketballcourtfinder.entity.Review;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,5 +21,49 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
 
     long countByUserId(Long userId);
 
-    Optional<Review> findByCourtIdAndUserId(Long court_id, Long user_id);
+    // Review listings read the review, its author and the vote of the requesting user in a single statement.
+    // The upvote join uses the (user_id, review_id) unique key and matches nothing for anonymous requests.
+    String LISTING = "SELECT r.reviewId AS reviewId, r.body AS body, r.rating AS rating, r.createdAt AS createdAt, " +
+            "r.voteCount AS voteCount, r.isEdited AS edited, u.displayName AS authorDisplayName, " +
+            "u.upvoteCount AS authorUpvoteCount, u.downvoteCount AS authorDownvoteCount, v.type AS userVote " +
+            "FROM Review r JOIN r.user u LEFT JOIN Vote v ON v.review = r AND v.user.id = :userId ";
+
+    // Ordering comes from the pageable and is served by the (court_id, created_at) and (court_id, rating) indexes
+    @Query(LISTING + "WHERE r.court.id = :courtId " +
+            "AND (:userId IS NULL OR u.id <> :userId)")
+    Slice<ReviewListing> findCourtPage(Long courtId, Long userId, Pageable pageable);
+
+    // Keyset continuations of findCourtPage, one per sort method, each starting right after a cursor position
+    @Query(LISTING + "WHERE r.court.id = :courtId " +
+            "AND (:userId IS NULL OR u.id <> :userId) " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.reviewId < :reviewId))")
+    Slice<ReviewListing> findCourtPageAfterNewest(Long courtId, Long userId, Date createdAt, long reviewId, Pageable pageable);
+
+    @Query(LISTING + "WHERE r.court.id = :courtId " +
+            "AND (:userId IS NULL OR u.id <> :userId) " +
+            "AND (r.rating < :rating OR (r.rating = :rating AND r.reviewId < :reviewId))")
+    Slice<ReviewListing> findCourtPageAfterHighest(Long courtId, Long userId, int rating, long reviewId, Pageable pageable);
+
+    @Query(LISTING + "WHERE r.court.id = :courtId " +
+            "AND (:userId IS NULL OR u.id <> :userId) " +
+            "AND (r.rating > :rating OR (r.rating = :rating AND r.reviewId > :reviewId))")
+    Slice<ReviewListing> findCourtPageAfterLowest(Long courtId, Long userId, int rating, long reviewId, Pageable pageable);
+
+    @Query(LISTING + "WHERE r.court.id = :courtId AND u.id = :userId")
+    Optional<ReviewListing> findListingByCourtIdAndUserId(Long courtId, Long userId);
+
+    // Rating changes are computed from these rows, so they stay locked until the transaction ends and
+    // concurrent edits or deletes of the same review cannot apply a delta from the same stale rating
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Review r WHERE r.reviewId = :reviewId")
+    Optional<Review> findByIdForUpdate(Long reviewId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Review r WHERE r.court.id = :courtId AND r.user.id = :userId")
+    Optional<Review> findByCourtIdAndUserIdForUpdate(Long courtId, Long userId);
+
+    // Applied in the database so concurrent votes never lose an update
+    @Modifying
+    @Query("UPDATE Review r SET r.voteCount = r.voteCount + :delta WHERE r.reviewId = :reviewId")
+    int addVoteCount(Long reviewId, int delta);
 }
@@ -3,6 +3,7 @@ package com.basketballcourtfinder.repository;
 import com.basketballcourtfinder.dto.UserProjection;
 import com.basketballcourtfinder.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -16,4 +17,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u.id AS id, u.email AS email, u.displayName AS displayName FROM User u WHERE u.id = :userId")
     Optional<UserProjection> findProjectedById(Long userId);
+
+    // Applied in the database so concurrent votes never lose an update
+    @Modifying
+    @Query("UPDATE User u SET u.upvoteCount = u.upvoteCount + :upvoteDelta, " +
+            "u.downvoteCount = u.downvoteCount + :downvoteDelta WHERE u.id = :userId")
+    int addVoteCounts(Long userId, int upvoteDelta, int downvoteDelta);
 }
@@ -1,24 +1,67 @@
 package com.basketballcourtfinder.service;
 
+import com.basketballcourtfinder.cache.CourtNotFoundCache;
+import com.basketballcourtfinder.cache.CourtSpatialIndex;
+import com.basketballcourtfinder.cache.CourtTileCache;
+import com.basketballcourtfinder.client.OverpassClient;
+import com.basketballcourtfinder.dto.CourtMarker;
+import com.basketballcourtfinder.dto.CourtPageDTO;
+import com.basketballcourtfinder.dto.NearbyCourtDTO;
 import com.basketballcourtfinder.entity.BasketballCourt;
+import com.basketballcourtfinder.enums.CourtField;
 import com.basketballcourtfinder.exceptions.EntityNotFoundException;
+import com.basketballcourtfinder.exceptions.OverpassUnavailableException;
 import com.basketballcourtfinder.jsonmapping.OverpassResponse;
 import com.basketballcourtfinder.repository.BasketballCourtRepository;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import com.basketballcourtfinder.util.CursorUtils;
+import com.basketballcourtfinder.util.GeoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @Service
 public class BasketballCourtService {
+    private static final Logger log = LoggerFactory.getLogger(BasketballCourtService.class);
+
+    // Upper bound on tiles waiting to be refreshed after an outage
+    private static final int MAX_STALE_TILES = 1000;
+
+    // Upper bound on IDs per batch lookup, keeps the Overpass query and URL reasonably small
+    public static final int MAX_BATCH_SIZE = 100;
+
     private final BasketballCourtRepository repository;
 
-    private final RestTemplate restTemplate;
+    private final OverpassClient overpassClient;
+
+    private final CourtTileCache tileCache;
+
+    private final CourtSpatialIndex spatialIndex;
+
+    private final CourtNotFoundCache notFoundCache;
+
+    private final int maxPageSize;
+
+    // Tiles answered from persisted courts while Overpass was unavailable, keyed by tile key
+    private final Map<String, CourtTileCache.Tile> staleTiles = new ConcurrentHashMap<>();
 
-    public BasketballCourtService(BasketballCourtRepository repository, RestTemplateBuilder restTemplateBuilder) {
+    public BasketballCourtService(BasketballCourtRepository repository, OverpassClient overpassClient,
+                                  CourtTileCache tileCache, CourtSpatialIndex spatialIndex,
+                                  CourtNotFoundCache notFoundCache,
+                                  @Value("${courts.around.max-page-size}") int maxPageSize) {
         this.repository = repository;
-        this.restTemplate = restTemplateBuilder.build();
+        this.overpassClient = overpassClient;
+        this.tileCache = tileCache;
+        this.spatialIndex = spatialIndex;
+        this.notFoundCache = notFoundCache;
+        this.maxPageSize = maxPageSize;
+
+        overpassClient.onRecovery(this::refreshStaleTiles);
     }
 
     /*
@@ -27,77 +70,316 @@ public class BasketballCourtService {
     public BasketballCourt getCourt(long court_id) {
         BasketballCourt court = repository.findById(court_id).orElse(null);
 
-        // If the court doesn't exist in our database, we must call the API
-        if (court == null) {
+        // If the court doesn't exist in our database, we must call the API, unless Overpass recently had
+        // nothing for this ID either
+        if (court == null && !notFoundCache.isNotFound(court_id)) {
             String query = String.format("[out:json];way(%s);out tags;", court_id);
 
-            // Using RestClient to make the API call
-            String apiUrl = String.format("https://overpass-api.de/api/interpreter?data=%s", query);
-
-            OverpassResponse response = restTemplate.getForObject(apiUrl, OverpassResponse.class);
+            List<OverpassResponse.Element> elements = fetch(query);
 
-            if (!response.getElements().isEmpty()) {
-                court = new BasketballCourt(response.getElements().get(0));
+            if (!elements.isEmpty()) {
+                court = new BasketballCourt(elements.get(0));
+            } else {
+                notFoundCache.put(court_id);
             }
 
             if (court != null) {
                 court.setId(court_id);
                 repository.save(court);
+                spatialIndex.put(court);
             }
         }
 
         return court;
     }
 
+    /*
+    * Retrieves many courts by ID in one go. Courts already persisted are loaded with a single query and
+    * all the others are fetched from Overpass with a single way(id:...) query. Courts are returned in the
+    * order requested, unknown IDs are left out.
+    * */
+    public List<BasketballCourt> getCourts(Collection<Long> courtIds) {
+        List<Long> ids = courtIds.stream().distinct().toList();
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " courts can be requested at once.");
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, BasketballCourt> courts = new HashMap<>();
+        for (BasketballCourt court : repository.findByIdIn(ids)) {
+            courts.put(court.getId(), court);
+        }
+
+        List<Long> missing = ids.stream()
+                .filter(id -> !courts.containsKey(id) && !notFoundCache.isNotFound(id))
+                .toList();
+
+        if (!missing.isEmpty()) {
+            String query = String.format("[out:json];way(id:%s);out center;",
+                    missing.stream().map(String::valueOf).collect(Collectors.joining(",")));
+
+            try {
+                List<BasketballCourt> fetched = fetch(query).stream()
+                        .map(BasketballCourt::new)
+                        .filter(court -> !courts.containsKey(court.getId()))
+                        .toList();
+
+                if (!fetched.isEmpty()) {
+                    repository.saveAll(fetched);
+                    spatialIndex.putAll(fetched);
+                    fetched.forEach(court -> courts.put(court.getId(), court));
+                }
+
+                missing.stream()
+                        .filter(id -> !courts.containsKey(id))
+                        .forEach(notFoundCache::put);
+            } catch (OverpassUnavailableException e) {
+                // The persisted courts are still worth returning
+                log.warn("Returning {} of {} courts, Overpass is unavailable: {}", courts.size(), ids.size(),
+                        e.getMessage());
+            }
+        }
+
+        return ids.stream()
+                .map(courts::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /*
+    * Retrieves the courts within a given area nearest first, one page at a time. The cursor is the
+    * (distance, id) of the last court of the previous page, so pages stay consistent while the map is
+    * not moved.
+    *
+    * Once the tile is known, distances come from the spatial index and only the courts on the page are
+    * loaded.
+    * */
+    public CourtPageDTO getNearestCourts(double latitude, double longitude, int range, int limit, String cursor) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1.");
+        }
+        int pageSize = Math.min(limit, maxPageSize);
+
+        double afterDistance = -1;
+        long afterId = Long.MIN_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = CursorUtils.decode(cursor, 2);
+            try {
+                afterDistance = Double.parseDouble(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+        }
+
+        double cursorDistance = afterDistance;
+        long cursorId = afterId;
+
+        CourtTileCache.Tile tile = tileCache.tileFor(latitude, longitude, range);
+        Set<Long> cachedIds = tileCache.get(tile);
+
+        List<NearbyId> candidates = new ArrayList<>();
+        Map<Long, BasketballCourt> loaded = new HashMap<>();
+        if (cachedIds != null) {
+            spatialIndex.distancesWithinRadius(latitude, longitude, range).forEach((id, distance) -> {
+                if (cachedIds.contains(id)) {
+                    candidates.add(new NearbyId(id, distance));
+                }
+            });
+        } else {
+            // Loads the tile, or falls back to persisted courts if Overpass is unavailable. Either way the
+            // courts are already loaded
+            for (BasketballCourt court : getCourtsInArea(latitude, longitude, range)) {
+                loaded.put(court.getId(), court);
+                candidates.add(new NearbyId(court.getId(),
+                        GeoUtils.distance(latitude, longitude, court.getLat(), court.getLon())));
+            }
+        }
+
+        // One extra court tells whether there is a next page
+        List<NearbyId> nearest = candidates.stream()
+                .filter(nearby -> nearby.distance() > cursorDistance
+                        || (nearby.distance() == cursorDistance && nearby.id() > cursorId))
+                .sorted(Comparator.comparingDouble(NearbyId::distance).thenComparingLong(NearbyId::id))
+                .limit(pageSize + 1L)
+                .toList();
+        List<NearbyId> page = nearest.subList(0, Math.min(nearest.size(), pageSize));
+
+        List<Long> toLoad = page.stream()
+                .map(NearbyId::id)
+                .filter(id -> !loaded.containsKey(id))
+                .toList();
+        if (!toLoad.isEmpty()) {
+            repository.findByIdIn(toLoad).forEach(court -> loaded.put(court.getId(), court));
+        }
+
+        List<NearbyCourtDTO> courts = page.stream()
+                .filter(nearby -> loaded.containsKey(nearby.id()))
+                .map(nearby -> new NearbyCourtDTO(loaded.get(nearby.id()), nearby.distance()))
+                .toList();
+
+        if (nearest.size() <= pageSize) {
+            return new CourtPageDTO(courts, null);
+        }
+
+        NearbyId last = page.get(pageSize - 1);
+        return new CourtPageDTO(courts, CursorUtils.encode(last.distance(), last.id()));
+    }
+
+    private record NearbyId(long id, double distance) {
+    }
+
+    /*
+    * Retrieves map markers for the courts within a given area. Once the tile is known the markers are read
+    * with a projection, so full courts are never loaded or serialized.
+    * */
+    public List<CourtMarker> getCourtMarkersInArea(double latitude, double longitude, int range) {
+        CourtTileCache.Tile tile = tileCache.tileFor(latitude, longitude, range);
+        Set<Long> cachedIds = tileCache.get(tile);
+
+        List<Long> ids;
+        if (cachedIds != null) {
+            ids = spatialIndex.withinRadius(latitude, longitude, range).stream()
+                    .filter(cachedIds::contains)
+                    .toList();
+        } else {
+            // Loads the tile, or falls back to persisted courts if Overpass is unavailable
+            ids = getCourtsInArea(latitude, longitude, range).stream()
+                    .map(BasketballCourt::getId)
+                    .toList();
+        }
+
+        return ids.isEmpty() ? Collections.emptyList() : repository.findMarkersByIdIn(ids);
+    }
+
     /*
     * Retrieves all courts within a given area.
     * */
     public Set<BasketballCourt> getCourtsInArea(double latitude, double longitude, int range) {
-        String apiUrl = getApiUrl(latitude, longitude, range);
-        OverpassResponse response = restTemplate.getForObject(apiUrl, OverpassResponse.class);
+        // Courts for the surrounding tile may already be known from an earlier request
+        CourtTileCache.Tile tile = tileCache.tileFor(latitude, longitude, range);
+        Set<Long> cachedIds = tileCache.get(tile);
+
+        if (cachedIds != null) {
+            // The tile is covered, so the spatial index narrows it down to the courts actually in range
+            List<Long> ids = spatialIndex.withinRadius(latitude, longitude, range).stream()
+                    .filter(cachedIds::contains)
+                    .toList();
+
+            return ids.isEmpty() ? Collections.emptySet() : new HashSet<>(repository.findByIdIn(ids));
+        }
 
-        if (response.getElements().isEmpty()) {
-            return Collections.emptySet();
+        List<OverpassResponse.Element> elements;
+        try {
+            elements = fetch(getAreaQuery(tile.getLatitude(), tile.getLongitude(), tile.getRadius()));
+        } catch (OverpassUnavailableException e) {
+            // Serve what we already have instead of failing, and fetch the tile once Overpass is back
+            log.warn("Serving persisted courts for tile {}: {}", tile.getKey(), e.getMessage());
+            markStale(tile);
+            return persistedCourtsInRange(latitude, longitude, range);
         }
 
-        Set<BasketballCourt> existingCourts = new HashSet<>(repository.findByIdIn(
-                response.getElements().stream()
+        return withinRange(storeTile(tile, elements), latitude, longitude, range);
+    }
+
+    /*
+    * Merges the Overpass elements of a tile into the database, the spatial index and the tile cache,
+    * returning every court in the tile.
+    * */
+    private Collection<BasketballCourt> storeTile(CourtTileCache.Tile tile, List<OverpassResponse.Element> elements) {
+        if (elements.isEmpty()) {
+            tileCache.put(tile, Collections.emptySet());
+            return Collections.emptyList();
+        }
+
+        List<BasketballCourt> existingCourts = repository.findByIdIn(
+                elements.stream()
                         .map(OverpassResponse.Element::getId)
+                        .distinct()
                         .toList()
-        ));
-
-        // Process each element and filter out missing coordinates
-        List<BasketballCourt> newCourts = response.getElements().stream()
-                .map(element -> existingCourts.stream()
-                        .filter(court -> court.getId() == element.getId())
-                        .findFirst()
-                        .orElseGet(() -> {
-                            BasketballCourt newCourt = new BasketballCourt(element);
-                            return (newCourt.getLat() == 0 && newCourt.getLon() == 0) ? null : newCourt;
-                        })
-                )
-                .filter(Objects::nonNull)
-                .toList();
+        );
+
+        CourtMerge merge = mergeCourts(elements, existingCourts);
 
         // Save new courts in batch
-        if (!newCourts.isEmpty()) {
-            repository.saveAll(newCourts);
-            existingCourts.addAll(newCourts);
+        if (!merge.toSave.isEmpty()) {
+            repository.saveAll(merge.toSave);
+            notFoundCache.removeAll(merge.courts.keySet());
+        }
+        spatialIndex.putAll(merge.courts.values());
+
+        tileCache.put(tile, merge.courts.keySet());
+
+        return merge.courts.values();
+    }
+
+    /*
+    * Answers an area request from the database alone, with an indexed bounding box query narrowed down
+    * to the exact radius.
+    * */
+    public Set<BasketballCourt> persistedCourtsInRange(double latitude, double longitude, int range) {
+        double[] box = GeoUtils.boundingBox(latitude, longitude, range);
+
+        return withinRange(repository.findInBounds(box[0], box[1], box[2], box[3]), latitude, longitude, range);
+    }
+
+    private void markStale(CourtTileCache.Tile tile) {
+        if (staleTiles.size() < MAX_STALE_TILES) {
+            staleTiles.putIfAbsent(tile.getKey(), tile);
         }
+    }
+
+    /*
+    * Refetches the tiles served stale during an outage, one at a time so the refresh never competes with
+    * user requests for more than one permit. Stops at the first failure, the remaining tiles are picked
+    * up again on the next recovery.
+    * */
+    void refreshStaleTiles() {
+        Iterator<CourtTileCache.Tile> pending = staleTiles.values().iterator();
+        if (!pending.hasNext()) {
+            return;
+        }
+
+        CourtTileCache.Tile tile = pending.next();
+        staleTiles.remove(tile.getKey(), tile);
+
+        overpassClient.fetch(getAreaQuery(tile.getLatitude(), tile.getLongitude(), tile.getRadius()))
+                .whenComplete((elements, error) -> {
+                    if (error != null) {
+                        markStale(tile);
+                        return;
+                    }
 
-        return existingCourts;
+                    try {
+                        storeTile(tile, elements);
+                    } catch (RuntimeException e) {
+                        log.warn("Failed to store refreshed tile {}", tile.getKey(), e);
+                        return;
+                    }
+
+                    refreshStaleTiles();
+                });
+    }
+
+    int staleTileCount() {
+        return staleTiles.size();
     }
 
     public BasketballCourt partialUpdate(long id, BasketballCourt updatedCourt) {
         BasketballCourt existingCourt = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("basketball court", id));
 
-        // Only update fields that are not null
+        // Only update fields that are not null. Edited OSM fields are marked so that refreshes from
+        // Overpass keep the user's value
         if (updatedCourt.getHoops() != null) {
             existingCourt.setHoops(updatedCourt.getHoops());
+            existingCourt.markEdited(CourtField.HOOPS);
         }
         if (updatedCourt.getSurface() != null) {
             existingCourt.setSurface(updatedCourt.getSurface());
+            existingCourt.markEdited(CourtField.SURFACE);
         }
         if (updatedCourt.getNetting() != null) {
             if (updatedCourt.getNetting() < 0 || updatedCourt.getNetting() > 3) {
@@ -116,18 +398,23 @@ public class BasketballCourtService {
         }
         if (updatedCourt.getAddress() != null) {
             existingCourt.setAddress(updatedCourt.getAddress());
+            existingCourt.markEdited(CourtField.ADDRESS);
         }
         if (updatedCourt.getAmenity() != null) {
             existingCourt.setAmenity(updatedCourt.getAmenity());
+            existingCourt.markEdited(CourtField.AMENITY);
         }
         if (updatedCourt.getWebsite() != null) {
             existingCourt.setWebsite(updatedCourt.getWebsite());
+            existingCourt.markEdited(CourtField.WEBSITE);
         }
         if (updatedCourt.getOpening_hours() != null) {
             existingCourt.setOpening_hours(updatedCourt.getOpening_hours());
+            existingCourt.markEdited(CourtField.OPENING_HOURS);
         }
         if (updatedCourt.getPhone() != null) {
             existingCourt.setPhone(updatedCourt.getPhone());
+            existingCourt.markEdited(CourtField.PHONE);
         }
 
         if (updatedCourt.getIndoor() != null) {
@@ -136,22 +423,89 @@ public class BasketballCourtService {
 
         if (updatedCourt.getName() != null) {
             existingCourt.setName(updatedCourt.getName());
+            existingCourt.markEdited(CourtField.NAME);
         }
 
         return repository.save(existingCourt);
     }
 
-    private static String getApiUrl(double latitude, double longitude, int range) {
+    /*
+    * Waits for an Overpass call, which is bounded by the client's deadline.
+    * */
+    private List<OverpassResponse.Element> fetch(String query) {
+        try {
+            return overpassClient.fetch(query).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    static class CourtMerge {
+        // Every court in the response, keyed by ID
+        final Map<Long, BasketballCourt> courts;
+
+        // New courts, plus existing courts whose coordinates were filled in
+        final List<BasketballCourt> toSave;
+
+        CourtMerge(Map<Long, BasketballCourt> courts, List<BasketballCourt> toSave) {
+            this.courts = courts;
+            this.toSave = toSave;
+        }
+    }
+
+    /*
+    * Merges Overpass elements with the courts already persisted in one pass over each list, looking
+    * existing courts up by ID instead of scanning them for every element.
+    * */
+    static CourtMerge mergeCourts(List<OverpassResponse.Element> elements, Collection<BasketballCourt> existingCourts) {
+        Map<Long, BasketballCourt> courts = new HashMap<>(Math.max(16, elements.size() * 2));
+        for (BasketballCourt court : existingCourts) {
+            courts.put(court.getId(), court);
+        }
+
+        List<BasketballCourt> toSave = new ArrayList<>();
+
+        for (OverpassResponse.Element element : elements) {
+            BasketballCourt court = courts.get(element.getId());
+
+            if (court == null) {
+                // Filter out elements with missing coordinates
+                BasketballCourt newCourt = new BasketballCourt(element);
+                if (newCourt.getLat() != 0 || newCourt.getLon() != 0) {
+                    courts.put(newCourt.getId(), newCourt);
+                    toSave.add(newCourt);
+                }
+            } else if (court.getLat() == 0 && court.getLon() == 0 && element.getCenter() != null) {
+                // Courts first saved through getCourt have no coordinates, so they are filled in here
+                court.setLat(element.getCenter().getLat());
+                court.setLon(element.getCenter().getLon());
+                toSave.add(court);
+            }
+        }
+
+        return new CourtMerge(courts, toSave);
+    }
+
+    /*
+    * Keeps only the courts within range of a point, since tiles cover more than the requested circle.
+    * */
+    private static Set<BasketballCourt> withinRange(Collection<BasketballCourt> courts,
+                                                    double latitude, double longitude, int range) {
+        return courts.stream()
+                .filter(court -> GeoUtils.distance(latitude, longitude, court.getLat(), court.getLon()) <= range)
+                .collect(Collectors.toSet());
+    }
+
+    private static String getAreaQuery(double latitude, double longitude, int range) {
         String locationFilter = String.format("around:%d,%f,%f", range, latitude, longitude);
 
-        // Api call to overpass api
-        String query = String.format("[out:json];" +
+        return String.format("[out:json];" +
                 "(way(%s)[\"amenity\"=\"community_centre\"];" +
                 "way(%s)[\"leisure\"=\"pitch\"][\"sport\"=\"basketball\"];" +
                 "way(%s)[\"amenity\"=\"school\"][\"sport\"=\"basketball\"];" +
                 ");out center; out tags;", locationFilter, locationFilter, locationFilter);
-
-        // Using RestClient for the API call
-        return String.format("https://overpass-api.de/api/interpreter?data=%s", query);
     }
 }
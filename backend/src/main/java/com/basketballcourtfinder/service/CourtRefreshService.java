@@ -0,0 +1,180 @@
+package com.basketballcourtfinder.service;
+
+import com.basketballcourtfinder.cache.CourtSpatialIndex;
+import com.basketballcourtfinder.client.OverpassClient;
+import com.basketballcourtfinder.entity.BasketballCourt;
+import com.basketballcourtfinder.enums.CourtField;
+import com.basketballcourtfinder.exceptions.OverpassUnavailableException;
+import com.basketballcourtfinder.jsonmapping.OverpassResponse;
+import com.basketballcourtfinder.repository.BasketballCourtRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+ * Keeps persisted courts in line with OpenStreetMap in the background.
+ *
+ * Every tick takes the batch of courts synced longest ago and re-fetches them with one multi-ID Overpass
+ * query, so the tick interval is the rate limit. Progress lives in the lastSyncedAt column, so a restart
+ * simply picks up the courts that are still stale. Fields edited by users are never overwritten.
+ *
+ * The batch is reloaded under row locks once Overpass has answered, so edits made while the query was
+ * running are seen and never clobbered by the copies loaded before it.
+ * */
+@Service
+@ConditionalOnProperty(name = "courts.refresh.enabled", havingValue = "true")
+public class CourtRefreshService {
+    private static final Logger log = LoggerFactory.getLogger(CourtRefreshService.class);
+
+    private final BasketballCourtRepository repository;
+
+    private final OverpassClient overpassClient;
+
+    private final CourtSpatialIndex spatialIndex;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final long maxAgeMillis;
+
+    public CourtRefreshService(BasketballCourtRepository repository, OverpassClient overpassClient,
+                               CourtSpatialIndex spatialIndex, TransactionTemplate transactionTemplate,
+                               @Value("${courts.refresh.batch-size}") int batchSize,
+                               @Value("${courts.refresh.max-age-ms}") long maxAgeMillis) {
+        this.repository = repository;
+        this.overpassClient = overpassClient;
+        this.spatialIndex = spatialIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    @Scheduled(initialDelayString = "${courts.refresh.initial-delay-ms}",
+            fixedDelayString = "${courts.refresh.interval-ms}")
+    public void refreshStaleCourts() {
+        List<BasketballCourt> courts = repository.findSyncedBefore(Instant.now().minusMillis(maxAgeMillis),
+                PageRequest.of(0, batchSize));
+
+        if (courts.isEmpty()) {
+            return;
+        }
+
+        try {
+            int changed = refresh(courts);
+            log.debug("Refreshed {} courts from Overpass, {} changed", courts.size(), changed);
+        } catch (OverpassUnavailableException e) {
+            // Nothing was marked as synced, so the same batch is retried on the next tick
+            log.warn("Skipping court refresh: {}", e.getMessage());
+        }
+    }
+
+    /*
+     * Re-fetches a batch of courts and saves them, returning how many had upstream changes. Courts that
+     * Overpass no longer knows are kept as they are, since reviews may still reference them.
+     * */
+    int refresh(List<BasketballCourt> courts) {
+        List<Long> ids = courts.stream().map(BasketballCourt::getId).toList();
+        String query = String.format("[out:json];way(id:%s);out center;",
+                ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+
+        Map<Long, OverpassResponse.Element> elements = fetch(query).stream()
+                .collect(Collectors.toMap(OverpassResponse.Element::getId, Function.identity(), (a, b) -> a));
+
+        // The fetch may take a while, so upstream values are applied to fresh copies of the rows
+        List<BasketballCourt> current = new ArrayList<>();
+        Integer changed = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            int count = 0;
+
+            for (BasketballCourt court : repository.findAllForUpdate(ids)) {
+                OverpassResponse.Element element = elements.get(court.getId());
+
+                if (element != null) {
+                    try {
+                        if (applyUpstream(court, new BasketballCourt(element))) {
+                            count++;
+                        }
+                    } catch (NumberFormatException e) {
+                        log.debug("Ignoring unparsable tags of court {}", court.getId());
+                    }
+                }
+
+                court.setLastSyncedAt(now);
+                current.add(court);
+            }
+
+            // Only the columns that changed are written, see @DynamicUpdate on BasketballCourt
+            repository.saveAll(current);
+            return count;
+        });
+        spatialIndex.putAll(current);
+
+        return (changed != null) ? changed : 0;
+    }
+
+    /*
+     * Copies upstream values into a court, skipping fields edited by users. Returns whether anything
+     * changed.
+     * */
+    static boolean applyUpstream(BasketballCourt court, BasketballCourt upstream) {
+        boolean changed = false;
+
+        if ((upstream.getLat() != 0 || upstream.getLon() != 0)
+                && (court.getLat() != upstream.getLat() || court.getLon() != upstream.getLon())) {
+            court.setLat(upstream.getLat());
+            court.setLon(upstream.getLon());
+            changed = true;
+        }
+
+        changed |= copy(court, CourtField.NAME, court.getName(), upstream.getName(), court::setName);
+        changed |= copy(court, CourtField.HOOPS, court.getHoops(), upstream.getHoops(), court::setHoops);
+        changed |= copy(court, CourtField.SURFACE, court.getSurface(), upstream.getSurface(), court::setSurface);
+        changed |= copy(court, CourtField.ADDRESS, court.getAddress(), upstream.getAddress(), court::setAddress);
+        changed |= copy(court, CourtField.AMENITY, court.getAmenity(), upstream.getAmenity(), court::setAmenity);
+        changed |= copy(court, CourtField.WEBSITE, court.getWebsite(), upstream.getWebsite(), court::setWebsite);
+        changed |= copy(court, CourtField.OPENING_HOURS, court.getOpening_hours(), upstream.getOpening_hours(),
+                court::setOpening_hours);
+        changed |= copy(court, CourtField.PHONE, court.getPhone(), upstream.getPhone(), court::setPhone);
+
+        if (!Objects.equals(court.getLeisure(), upstream.getLeisure())) {
+            court.setLeisure(upstream.getLeisure());
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    private static <T> boolean copy(BasketballCourt court, CourtField field, T current, T upstream,
+                                    Consumer<T> setter) {
+        if (court.isEdited(field) || Objects.equals(current, upstream)) {
+            return false;
+        }
+
+        setter.accept(upstream);
+        return true;
+    }
+
+    private List<OverpassResponse.Element> fetch(String query) {
+        try {
+            return overpassClient.fetch(query).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
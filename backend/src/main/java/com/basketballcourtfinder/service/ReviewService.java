@@ -1,59 +1,126 @@
 package com.basketballcourtfinder.service;
 
 import com.basketballcourtfinder.dto.ReviewDTO;
+import com.basketballcourtfinder.dto.ReviewListing;
 import com.basketballcourtfinder.dto.ReviewResponseDTO;
 import com.basketballcourtfinder.entity.*;
 import com.basketballcourtfinder.enums.SortMethod;
 import com.basketballcourtfinder.exceptions.EntityAlreadyExistsException;
 import com.basketballcourtfinder.exceptions.EntityNotFoundException;
+import com.basketballcourtfinder.repository.CourtRatingRepository;
 import com.basketballcourtfinder.repository.ReviewRepository;
 import com.basketballcourtfinder.repository.UserRepository;
-import com.basketballcourtfinder.repository.VoteRepository;
+import com.basketballcourtfinder.util.CursorUtils;
+import jakarta.annotation.PostConstruct;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class ReviewService {
-    private final ReviewRepository reviewRepository;
+    private static final Logger log = LoggerFactory.getLogger(ReviewService.class);
+
+    // Upper bound on courts per bulk rating lookup, matches the court batch endpoint
+    public static final int MAX_RATINGS_BATCH_SIZE = 100;
 
-    private final VoteRepository voteRepository;
+    // Unique key allowing one review per user and court, see Review
+    private static final String REVIEW_COURT_USER_KEY = "uk_review_court_user";
+
+    private final ReviewRepository reviewRepository;
 
     private final UserRepository userRepository;
 
     private final BasketballCourtService courtService;
 
-    public ReviewService(ReviewRepository reviewRepository, VoteRepository voteRepository, UserRepository userRepository, BasketballCourtService courtService) {
+    private final CourtRatingRepository courtRatingRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public ReviewService(ReviewRepository reviewRepository, UserRepository userRepository, BasketballCourtService courtService,
+                         CourtRatingRepository courtRatingRepository, TransactionTemplate transactionTemplate) {
         this.reviewRepository = reviewRepository;
-        this.voteRepository = voteRepository;
         this.userRepository = userRepository;
         this.courtService = courtService;
+        this.courtRatingRepository = courtRatingRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /*
+     * Makes sure every reviewed court has stored totals before requests are served, so reading a rating
+     * never writes. Instances starting together may race here, whichever inserts first wins.
+     * */
+    @PostConstruct
+    public void backfillCourtRatings() {
+        try {
+            int seeded = courtRatingRepository.backfill();
+            if (seeded > 0) {
+                log.info("Seeded rating totals of {} courts", seeded);
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.info("Rating totals were seeded concurrently: {}", e.getMessage());
+        }
     }
 
     public Map<String, ?> getCourtRating(Long courtId) {
-        List<Review> reviews = reviewRepository.findByCourtId(courtId);
+        // Courts without stored totals have no reviews
+        CourtRating rating = courtRatingRepository.findById(courtId)
+                .orElseGet(() -> new CourtRating(courtId, 0, 0));
+
+        return toRatingResponse(rating);
+    }
 
-        double rating = reviews.stream()
-                .mapToInt(Review::getRating)
-                .average().orElse(0.0);
+    /*
+     * Returns the rating of every requested court keyed by court ID, courts without reviews included.
+     * Stored totals are read in one query and nothing is written.
+     * */
+    public Map<Long, Map<String, ?>> getCourtRatings(Collection<Long> courtIds) {
+        List<Long> ids = courtIds.stream().distinct().toList();
+        if (ids.size() > MAX_RATINGS_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_RATINGS_BATCH_SIZE + " courts can be requested at once.");
+        }
+
+        Map<Long, CourtRating> ratings = new HashMap<>();
+        if (!ids.isEmpty()) {
+            courtRatingRepository.findAllById(ids).forEach(rating -> ratings.put(rating.getCourtId(), rating));
+        }
 
-        return Map.of("rating", Math.round(rating * 100.0) / 100.0, "reviews", reviews.size());
+        // Courts without stored totals have no reviews
+        Map<Long, Map<String, ?>> response = new LinkedHashMap<>();
+        for (Long id : ids) {
+            response.put(id, toRatingResponse(ratings.getOrDefault(id, new CourtRating(id, 0, 0))));
+        }
+        return response;
     }
 
-    private ReviewResponseDTO mapToReviewDTO(Review review, Map<Long, VoteType> userVoteMap) {
-        User author = review.getUser();
+    private static Map<String, ?> toRatingResponse(CourtRating rating) {
+        return Map.of("rating", rating.getAverage(), "reviews", rating.getReviewCount());
+    }
 
+    private void adjustCourtRating(Long courtId, long ratingDelta, int countDelta) {
+        courtRatingRepository.adjust(courtId, ratingDelta, countDelta);
+    }
+
+    private ReviewResponseDTO mapToReviewDTO(ReviewListing review) {
         ReviewResponseDTO response = new ReviewResponseDTO();
         response.setReviewId(review.getReviewId());
         response.setContent(review.getBody());
         response.setEdited(review.isEdited());
         response.setRating(review.getRating());
         response.setTotalVotes(review.getVoteCount());
-        response.setAuthorDisplayName(author.getDisplayName());
-        response.setAuthorTrustScore(author.getTrustScore());
-        response.setUpvoted(userVoteMap.getOrDefault(review.getReviewId(), null) == VoteType.UPVOTE);
-        response.setDownvoted(userVoteMap.getOrDefault(review.getReviewId(), null) == VoteType.DOWNVOTE);
+        response.setAuthorDisplayName(review.getAuthorDisplayName());
+        response.setAuthorTrustScore(User.trustScore(review.getAuthorUpvoteCount(), review.getAuthorDownvoteCount()));
+        response.setUpvoted(review.getUserVote() == VoteType.UPVOTE);
+        response.setDownvoted(review.getUserVote() == VoteType.DOWNVOTE);
         response.setCreatedAt(review.getCreatedAt());
 
         return response;
@@ -64,67 +131,102 @@ public class ReviewService {
                                                 Integer page,
                                                 Integer reviewPerPage,
                                                 SortMethod sortMethod) {
-        List<Review> reviews = reviewRepository.findByCourtId(courtId);
+        return findCourtReviews(courtId, userId, page, reviewPerPage, sortMethod, null);
+    }
 
-        if (reviews.isEmpty()) {
-            return Map.of("userReview", Optional.empty(), "otherReviews", Collections.emptyList());
-        }
+    /*
+     * Returns a page of reviews for a court. With a cursor from a previous response the page continues
+     * right after it using a keyset range scan and page is ignored, otherwise page is used as an offset.
+     * A nextCursor is included whenever more reviews follow.
+     * */
+    @Transactional(readOnly = true)
+    public Map<String, Object> findCourtReviews(Long courtId,
+                                                Long userId,
+                                                Integer page,
+                                                Integer reviewPerPage,
+                                                SortMethod sortMethod,
+                                                String cursor) {
+        // Identify user's own review only if userId is not null
+        ReviewListing userReview = (userId != null)
+                ? reviewRepository.findListingByCourtIdAndUserId(courtId, userId).orElse(null)
+                : null;
 
-        // Sort reviews based on the selected sort method
-        switch (sortMethod) {
-            case NEWEST:
-                reviews.sort(Comparator.comparing(Review::getCreatedAt).reversed());
-                break;
-            case HIGHEST:
-                reviews.sort(Comparator.comparing(Review::getRating).reversed());
-                break;
-            case LOWEST:
-                reviews.sort(Comparator.comparing(Review::getRating));
-                break;
-        }
+        // Sort and paginate other reviews in the database, the user's own review is never part of a page
+        Slice<ReviewListing> slice = (cursor != null)
+                ? findCourtPageAfter(courtId, userId, cursor, sortMethod, PageRequest.of(0, reviewPerPage, sortFor(sortMethod)))
+                : reviewRepository.findCourtPage(courtId, userId, PageRequest.of(page - 1, reviewPerPage, sortFor(sortMethod)));
+        List<ReviewListing> reviews = slice.getContent();
 
-        // Fetch user's votes only if userId is not null
-        Map<Long, VoteType> userVoteMap;
-        if (userId != null) {
-            List<Vote> userVotes = voteRepository.findByUserIdAndReview_ReviewIdIn(userId,
-                    reviews.stream().map(Review::getReviewId).collect(Collectors.toList()));
-            userVoteMap = userVotes.stream()
-                    .collect(Collectors.toMap(v -> v.getReview().getReviewId(), Vote::getType));
-        } else {
-            userVoteMap = new HashMap<>();
+        if (userReview == null && reviews.isEmpty()) {
+            return Map.of("userReview", Optional.empty(), "otherReviews", Collections.emptyList());
         }
 
-        // Identify user's own review only if userId is not null
-        Review userReview = (userId != null)
-                ? reviews.stream()
-                .filter(review -> review.getUser().getId() == userId)
-                .findFirst()
-                .orElse(null)
-                : null;
-
         // Map user review if it exists
-        ReviewResponseDTO userReviewDTO = (userReview != null) ? mapToReviewDTO(userReview, userVoteMap) : null;
+        ReviewResponseDTO userReviewDTO = (userReview != null) ? mapToReviewDTO(userReview) : null;
 
         // Map other reviews
         List<ReviewResponseDTO> otherReviews = reviews.stream()
-                .filter(review -> userReview == null || !(review.getReviewId() == userReview.getReviewId()))
-                .map(review -> mapToReviewDTO(review, userVoteMap))
+                .map(this::mapToReviewDTO)
                 .toList();
 
-        // Paginate reviews
-        int start = (page - 1) * reviewPerPage;
-        int end = Math.min(start + reviewPerPage, otherReviews.size());
-        otherReviews = otherReviews.subList(start, end);
-
         // Construct response map
         Map<String, Object> map = new HashMap<>(Map.of("otherReviews", otherReviews));
         if (userReviewDTO != null) {
             map.put("userReview", userReviewDTO);
         }
+        if (slice.hasNext()) {
+            map.put("nextCursor", cursorFor(reviews.get(reviews.size() - 1), sortMethod));
+        }
 
         return map;
     }
 
+    /*
+     * Cursors hold the sort method, the sort key of the last review and its ID. NEWEST keys on the
+     * creation time in epoch milliseconds, the rating sorts key on the rating.
+     * */
+    private static String cursorFor(ReviewListing review, SortMethod sortMethod) {
+        long key = (sortMethod == SortMethod.NEWEST) ? review.getCreatedAt().getTime() : review.getRating();
+        return CursorUtils.encode(sortMethod.name(), key, review.getReviewId());
+    }
+
+    private Slice<ReviewListing> findCourtPageAfter(Long courtId, Long userId, String cursor, SortMethod sortMethod, Pageable pageable) {
+        String[] parts = CursorUtils.decode(cursor, 3);
+        if (!parts[0].equals(sortMethod.name())) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+
+        long key;
+        long reviewId;
+        try {
+            key = Long.parseLong(parts[1]);
+            reviewId = Long.parseLong(parts[2]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+
+        return switch (sortMethod) {
+            case NEWEST -> reviewRepository.findCourtPageAfterNewest(courtId, userId, new Date(key), reviewId, pageable);
+            case HIGHEST -> reviewRepository.findCourtPageAfterHighest(courtId, userId, (int) key, reviewId, pageable);
+            case LOWEST -> reviewRepository.findCourtPageAfterLowest(courtId, userId, (int) key, reviewId, pageable);
+        };
+    }
+
+    /*
+     * Review ID breaks ties so that pages never overlap when many reviews share a date or rating.
+     * */
+    private static Sort sortFor(SortMethod sortMethod) {
+        return switch (sortMethod) {
+            case NEWEST -> Sort.by(Sort.Direction.DESC, "createdAt", "reviewId");
+            case HIGHEST -> Sort.by(Sort.Direction.DESC, "rating", "reviewId");
+            case LOWEST -> Sort.by(Sort.Direction.ASC, "rating", "reviewId");
+        };
+    }
+
+    /*
+     * The court is resolved before the transaction starts, since getCourt may wait on Overpass and no
+     * database connection should be held meanwhile.
+     * */
     public void saveReview(ReviewDTO reviewDTO, Long userId) {
 
         // Fetch user and court entities
@@ -136,13 +238,6 @@ public class ReviewService {
             throw new EntityNotFoundException("court", reviewDTO.getCourtId());
         }
 
-        // Check if review already exists
-        Optional<Review> found = reviewRepository.findByCourtIdAndUserId(reviewDTO.getCourtId(), userId);
-
-        if (found.isPresent()) {
-            throw new EntityAlreadyExistsException("You already have an existing review.");
-        }
-
         // Create a new Review entity
         Review review = new Review();
         review.setUser(user);
@@ -152,11 +247,35 @@ public class ReviewService {
         review.setCreatedAt(new Date());  // Automatically set creation date
         review.setPoints(0);  // Default value for points
 
-        reviewRepository.save(review);
+        transactionTemplate.executeWithoutResult(status -> {
+            // One review per user and court is enforced by the unique (court_id, user_id) key, which also
+            // catches two concurrent submissions
+            try {
+                reviewRepository.save(review);
+            } catch (DataIntegrityViolationException e) {
+                if (violates(e, REVIEW_COURT_USER_KEY)) {
+                    throw new EntityAlreadyExistsException("You already have an existing review.");
+                }
+                throw e;
+            }
+            adjustCourtRating(reviewDTO.getCourtId(), review.getRating(), 1);
+        });
     }
 
+    /*
+     * Whether a failed write broke the named constraint. Drivers report the name differently, MySQL
+     * prefixes it with the table and H2 upper-cases it, so it is matched loosely.
+     * */
+    private static boolean violates(DataIntegrityViolationException e, String constraint) {
+        String name = (e.getCause() instanceof ConstraintViolationException violation)
+                ? violation.getConstraintName()
+                : null;
+        return name != null && name.toLowerCase(Locale.ROOT).contains(constraint);
+    }
+
+    @Transactional
     public Review partialUpdate(Long reviewId, Long userId, ReviewResponseDTO updates) throws Exception {
-        Review existingReview = reviewRepository.findById(reviewId)
+        Review existingReview = reviewRepository.findByIdForUpdate(reviewId)
                 .orElseThrow(() -> new EntityNotFoundException("review", reviewId));
 
         if (userId == existingReview.getUser().getId()) {
@@ -168,7 +287,11 @@ public class ReviewService {
                 if (updates.getRating() < 0 || updates.getRating() > 5) {
                     throw new IllegalArgumentException("Rating must be between 0 to 5 inclusive.");
                 } else {
+                    int previousRating = existingReview.getRating();
                     existingReview.setRating(updates.getRating());
+                    if (previousRating != updates.getRating()) {
+                        adjustCourtRating(existingReview.getCourt().getId(), updates.getRating() - previousRating, 0);
+                    }
                 }
             }
 
@@ -178,6 +301,7 @@ public class ReviewService {
         }
     }
 
+    // Like saveReview, only the delete and the rating change run in a transaction
     public void deleteReview(Long courtId, Long userId) {
         // Fetch user and court entities
         boolean userExists = userRepository.existsById(userId);
@@ -191,14 +315,17 @@ public class ReviewService {
             throw new EntityNotFoundException("court", courtId);
         }
 
-        // Check if review already exists
-        Optional<Review> found = reviewRepository.findByCourtIdAndUserId(courtId, userId);
+        transactionTemplate.executeWithoutResult(status -> {
+            // Check if review already exists
+            Optional<Review> found = reviewRepository.findByCourtIdAndUserIdForUpdate(courtId, userId);
 
-        if (found.isEmpty()) {
-            throw new EntityNotFoundException("review", courtId, userId);
-        }
+            if (found.isEmpty()) {
+                throw new EntityNotFoundException("review", courtId, userId);
+            }
 
-        Review review = found.get();
-        reviewRepository.deleteById(review.getReviewId());
+            Review review = found.get();
+            reviewRepository.deleteById(review.getReviewId());
+            adjustCourtRating(courtId, -review.getRating(), -1);
+        });
     }
 }
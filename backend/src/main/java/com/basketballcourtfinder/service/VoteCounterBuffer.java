@@ -0,0 +1,145 @@
+package com.basketballcourtfinder.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Write-behind buffer for review and user vote counters. When enabled, VoteService still writes vote
+ * rows synchronously but only records the counter deltas here, and they are written to the database
+ * in JDBC batches on a fixed interval and on shutdown. A burst of votes on one review becomes a single
+ * UPDATE per flush, at the cost of counters lagging by up to one interval.
+ *
+ * Deltas are merged per ID in concurrent maps, which lock per bin, and a flush removes each entry
+ * atomically, so votes arriving mid-flush simply start a new entry for the next one.
+ * */
+@Component
+public class VoteCounterBuffer {
+    private static final Logger log = LoggerFactory.getLogger(VoteCounterBuffer.class);
+
+    private static final String REVIEW_SQL = "UPDATE review SET vote_count = vote_count + ? WHERE review_id = ?";
+
+    private static final String USER_SQL = "UPDATE user SET upvote_count = upvote_count + ?, " +
+            "downvote_count = downvote_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    // Review ID -> pending vote count delta
+    private final ConcurrentHashMap<Long, Integer> reviewDeltas = new ConcurrentHashMap<>();
+
+    // User ID -> pending upvote and downvote count deltas
+    private final ConcurrentHashMap<Long, Integer> upvoteDeltas = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Long, Integer> downvoteDeltas = new ConcurrentHashMap<>();
+
+    public VoteCounterBuffer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             @Value("${votes.write-behind.enabled}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /*
+     * Records counter changes of one vote, to be called once the vote row is committed.
+     * */
+    public void add(long reviewId, long userId, int reviewDelta, int upvoteDelta, int downvoteDelta) {
+        merge(reviewDeltas, reviewId, reviewDelta);
+        merge(upvoteDeltas, userId, upvoteDelta);
+        merge(downvoteDeltas, userId, downvoteDelta);
+    }
+
+    /*
+     * Number of reviews and users with counter changes waiting for the next flush.
+     * */
+    public int pendingCount() {
+        Set<Long> users = new HashSet<>(upvoteDeltas.keySet());
+        users.addAll(downvoteDeltas.keySet());
+        return reviewDeltas.size() + users.size();
+    }
+
+    @Scheduled(fixedDelayString = "${votes.write-behind.flush-interval-ms}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /*
+     * Writes every pending delta in one transaction. If the write fails the deltas are put back, so they
+     * are retried on the next flush instead of being lost.
+     * */
+    @PreDestroy
+    public synchronized void flush() {
+        Map<Long, Integer> reviews = drain(reviewDeltas);
+        Map<Long, Integer> upvotes = drain(upvoteDeltas);
+        Map<Long, Integer> downvotes = drain(downvoteDeltas);
+
+        if (reviews.isEmpty() && upvotes.isEmpty() && downvotes.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> reviewRows = new ArrayList<>();
+        reviews.forEach((id, delta) -> reviewRows.add(new Object[] { delta, id }));
+
+        Set<Long> userIds = new HashSet<>(upvotes.keySet());
+        userIds.addAll(downvotes.keySet());
+        List<Object[]> userRows = new ArrayList<>();
+        for (Long id : userIds) {
+            userRows.add(new Object[] { upvotes.getOrDefault(id, 0), downvotes.getOrDefault(id, 0), id });
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!reviewRows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(REVIEW_SQL, reviewRows);
+                }
+                if (!userRows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(USER_SQL, userRows);
+                }
+            });
+            log.debug("Flushed vote counters of {} reviews and {} users", reviewRows.size(), userRows.size());
+        } catch (RuntimeException e) {
+            reviews.forEach((id, delta) -> merge(reviewDeltas, id, delta));
+            upvotes.forEach((id, delta) -> merge(upvoteDeltas, id, delta));
+            downvotes.forEach((id, delta) -> merge(downvoteDeltas, id, delta));
+            log.warn("Failed to flush vote counters, retrying on the next flush: {}", e.getMessage());
+        }
+    }
+
+    // Entries that cancel out are dropped so they are not written at all
+    private static void merge(ConcurrentHashMap<Long, Integer> deltas, long id, int delta) {
+        if (delta != 0) {
+            deltas.merge(id, delta, (previous, added) -> (previous + added == 0) ? null : previous + added);
+        }
+    }
+
+    private static Map<Long, Integer> drain(ConcurrentHashMap<Long, Integer> deltas) {
+        Map<Long, Integer> drained = new HashMap<>();
+        for (Long id : deltas.keySet()) {
+            Integer delta = deltas.remove(id);
+            if (delta != null) {
+                drained.put(id, delta);
+            }
+        }
+        return drained;
+    }
+}
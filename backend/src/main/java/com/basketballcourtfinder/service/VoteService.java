@@ -1,7 +1,5 @@
 package com.basketballcourtfinder.service;
 
-import com.basketballcourtfinder.entity.Review;
-import com.basketballcourtfinder.entity.User;
 import com.basketballcourtfinder.entity.Vote;
 import com.basketballcourtfinder.entity.VoteType;
 import com.basketballcourtfinder.exceptions.EntityAlreadyExistsException;
@@ -9,16 +7,26 @@ import com.basketballcourtfinder.exceptions.EntityNotFoundException;
 import com.basketballcourtfinder.repository.ReviewRepository;
 import com.basketballcourtfinder.repository.UserRepository;
 import com.basketballcourtfinder.repository.VoteRepository;
+import com.basketballcourtfinder.util.StripedLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class VoteService {
+    private static final Logger log = LoggerFactory.getLogger(VoteService.class);
+
+    // Lock contention is logged once per this many acquisitions
+    private static final long LOG_INTERVAL = 10000;
+
     @Autowired
     private final VoteRepository voteRepository;
 
@@ -28,113 +36,159 @@ public class VoteService {
     @Autowired
     private final UserRepository userRepository;
 
-    private final ConcurrentHashMap<Long, Object> lockMap = new ConcurrentHashMap<>();
+    private final TransactionTemplate transactionTemplate;
+
+    private final VoteCounterBuffer counterBuffer;
 
-    public VoteService(VoteRepository voteRepository, ReviewRepository reviewRepository, UserRepository userRepository) {
+    // Review ID -> lock stripe, serializes vote changes on the same review
+    private final StripedLock reviewLocks;
+
+    public VoteService(VoteRepository voteRepository, ReviewRepository reviewRepository, UserRepository userRepository, TransactionTemplate transactionTemplate,
+                       VoteCounterBuffer counterBuffer, @Value("${votes.lock-stripes}") int lockStripes) {
         this.voteRepository = voteRepository;
         this.reviewRepository = reviewRepository;
         this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.counterBuffer = counterBuffer;
+        this.reviewLocks = new StripedLock(lockStripes);
     }
 
-    public void addVote(Long reviewId, Long userId, VoteType voteType) {
-        // Obtain a unique lock for the reviewId
-        Object lock = lockMap.computeIfAbsent(reviewId, k -> new Object());
+    public StripedLock getReviewLocks() {
+        return reviewLocks;
+    }
 
-        synchronized (lock) {
-            try {
-                // Check if user already voted this review
-                Optional<Vote> existingVote = voteRepository.findByUserIdAndReview_ReviewId(userId, reviewId);
-
-                if(existingVote.isPresent()) {
-                    Vote vote = existingVote.get();
-                    if (vote.getType() == voteType) {
-                        throw new EntityAlreadyExistsException("You have already " + voteType.name().toLowerCase()
-                                + "ed this review.");
-                    } else {
-                        updateUserAndReview(voteType, vote);
-
-                        // Change vote type
-                        vote.setType(voteType);
-                        voteRepository.save(vote);
-                        return;
-                    }
+    /*
+     * Records a vote and applies the counter changes as in-database increments in the same transaction,
+     * so counters stay correct across concurrent requests and app instances. The review lock only orders
+     * the vote row lookup and write within this instance, duplicate inserts from elsewhere are rejected
+     * by the (user_id, review_id) unique key.
+     *
+     * With write-behind enabled the counter changes go to the VoteCounterBuffer once the vote row is
+     * committed instead.
+     * */
+    public void addVote(Long reviewId, Long userId, VoteType voteType) {
+        CounterDelta delta = reviewLocks.execute(reviewId, () -> transactionTemplate.execute(status -> {
+            // Check if user already voted this review
+            Optional<Vote> existingVote = voteRepository.findByUserIdAndReview_ReviewId(userId, reviewId);
+
+            if (existingVote.isPresent()) {
+                Vote vote = existingVote.get();
+                if (vote.getType() == voteType) {
+                    throw new EntityAlreadyExistsException("You have already " + voteType.name().toLowerCase()
+                            + "ed this review.");
                 }
 
-                // Fetch user and review
-                User voter = userRepository.findById(userId)
-                        .orElseThrow(() -> new EntityNotFoundException("user", userId));
-                Review review = reviewRepository.findById(reviewId)
-                        .orElseThrow(() -> new EntityNotFoundException("review", reviewId));
+                // Change vote type, moving one vote between the user's counters and two on the review
+                int direction = (voteType == VoteType.UPVOTE) ? 1 : -1;
+                CounterDelta changed = new CounterDelta(2 * direction, direction, -direction);
+                if (!counterBuffer.isEnabled()) {
+                    reviewRepository.addVoteCount(reviewId, changed.review());
+                    userRepository.addVoteCounts(userId, changed.upvotes(), changed.downvotes());
+                }
 
-                // Save upvote
-                Vote vote = new Vote();
-                vote.setReview(review);
                 vote.setType(voteType);
-                if (voteType == VoteType.UPVOTE) {
-                    voter.setUpvoteCount(voter.getUpvoteCount() + 1);
-                    review.incrementVoteCount();
-                } else if (voteType == VoteType.DOWNVOTE) {
-                    voter.setDownvoteCount(voter.getDownvoteCount() + 1);
-                    review.decrementVoteCount();
-                }
-                vote.setUser(voter);
                 voteRepository.save(vote);
-                userRepository.save(voter);
-                reviewRepository.save(review);
-            } finally {
-                lockMap.remove(reviewId);
+                return changed;
             }
+
+            CounterDelta added = CounterDelta.of(voteType, 1);
+            if (counterBuffer.isEnabled()) {
+                verifyExists(reviewId, userId);
+            } else {
+                applyCounters(reviewId, userId, added);
+            }
+
+            // Save vote
+            Vote vote = new Vote();
+            vote.setReview(reviewRepository.getReferenceById(reviewId));
+            vote.setUser(userRepository.getReferenceById(userId));
+            vote.setType(voteType);
+            try {
+                voteRepository.save(vote);
+            } catch (DataIntegrityViolationException e) {
+                throw new EntityAlreadyExistsException("You have already voted on this review.");
+            }
+            return added;
+        }));
+
+        bufferCounters(reviewId, userId, delta);
+        logContention();
+    }
+
+    public ResponseEntity<?> removeVote(Long reviewId, Long userId) {
+        CounterDelta delta = reviewLocks.execute(reviewId, () -> transactionTemplate.execute(status -> {
+            Optional<Vote> vote = voteRepository.findByUserIdAndReview_ReviewId(userId, reviewId);
+
+            if (vote.isEmpty()) {
+                return null;
+            }
+
+            CounterDelta removed = CounterDelta.of(vote.get().getType(), -1);
+            if (!counterBuffer.isEnabled()) {
+                applyCounters(reviewId, userId, removed);
+            }
+            voteRepository.delete(vote.get());
+            return removed;
+        }));
+        logContention();
+
+        if (delta != null) {
+            bufferCounters(reviewId, userId, delta);
+            return ResponseEntity.ok("Vote removed successfully.");
+        }
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No vote found to remove.");
+    }
+
+    /*
+     * Change of the review vote count and the voter's upvote and downvote counts caused by one vote.
+     * */
+    private record CounterDelta(int review, int upvotes, int downvotes) {
+        // Adds (sign 1) or takes back (sign -1) a vote of the given type
+        private static CounterDelta of(VoteType voteType, int sign) {
+            return (voteType == VoteType.UPVOTE)
+                    ? new CounterDelta(sign, sign, 0)
+                    : new CounterDelta(-sign, 0, sign);
         }
     }
 
-    private void updateUserAndReview(VoteType voteType, Vote vote) {
-        User user = vote.getUser();
-        Review review = vote.getReview();
-        // Update counts based on the change in vote type
-        if (vote.getType() == VoteType.UPVOTE && voteType == VoteType.DOWNVOTE) {
-            user.setUpvoteCount(user.getUpvoteCount() - 1);
-            user.setDownvoteCount(user.getDownvoteCount() + 1);
-            review.decrementVoteCount(2);
-        } else if (vote.getType() == VoteType.DOWNVOTE && voteType == VoteType.UPVOTE) {
-            user.setDownvoteCount(user.getDownvoteCount() - 1);
-            user.setUpvoteCount(user.getUpvoteCount() + 1);
-            review.incrementVoteCount(2);
+    /*
+     * Applies counter changes in the database. A missing review or user updates no row and aborts the
+     * surrounding transaction.
+     * */
+    private void applyCounters(Long reviewId, Long userId, CounterDelta delta) {
+        if (reviewRepository.addVoteCount(reviewId, delta.review()) == 0) {
+            throw new EntityNotFoundException("review", reviewId);
         }
 
-        userRepository.save(user);
-        reviewRepository.save(review);
+        if (userRepository.addVoteCounts(userId, delta.upvotes(), delta.downvotes()) == 0) {
+            throw new EntityNotFoundException("user", userId);
+        }
     }
 
-    public ResponseEntity<?> removeVote(Long reviewId, Long userId) {
-        // Obtain a unique lock for the reviewId
-        Object lock = lockMap.computeIfAbsent(reviewId, k -> new Object());
+    // Without the counter updates there is no row count to tell a missing review or user
+    private void verifyExists(Long reviewId, Long userId) {
+        if (!reviewRepository.existsById(reviewId)) {
+            throw new EntityNotFoundException("review", reviewId);
+        }
 
-        synchronized (lock) {
-            try {
-                Optional<Vote> vote = voteRepository.findByUserIdAndReview_ReviewId(userId, reviewId);
-
-                if (vote.isPresent()) {
-                    Vote vote1 = vote.get();
-                    Review review = vote1.getReview();
-                    User user = vote1.getUser();
-                    if (vote1.getType() == VoteType.UPVOTE) {
-                        user.setUpvoteCount(user.getUpvoteCount() - 1);
-                        review.setVoteCount(review.getVoteCount() - 1);
-                    }
-                    else if (vote1.getType() == VoteType.DOWNVOTE) {
-                        user.setDownvoteCount(user.getDownvoteCount() - 1);
-                        review.setVoteCount(review.getVoteCount() + 1);
-                    }
-
-                    updateUserAndReview(vote1.getType(), vote1);
-                    voteRepository.delete(vote1);
-                    return ResponseEntity.ok("Vote removed successfully.");
-                }
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("user", userId);
+        }
+    }
 
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No vote found to remove.");
-            } finally {
-                lockMap.remove(reviewId);
-            }
+    private void bufferCounters(Long reviewId, Long userId, CounterDelta delta) {
+        if (counterBuffer.isEnabled()) {
+            counterBuffer.add(reviewId, userId, delta.review(), delta.upvotes(), delta.downvotes());
+        }
+    }
+
+    private void logContention() {
+        if (reviewLocks.getAcquisitionCount() % LOG_INTERVAL == 0) {
+            log.info("Vote locks: {} acquisitions, contention rate {}, {} ms waited",
+                    reviewLocks.getAcquisitionCount(),
+                    String.format("%.3f", reviewLocks.getContentionRate()),
+                    reviewLocks.getWaitMillis());
         }
     }
 
@@ -0,0 +1,107 @@
+package com.basketballcourtfinder.util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+/*
+ * Stops calling a failing dependency for a while after repeated failures.
+ *
+ * CLOSED lets every call through and counts consecutive failures. Once the threshold is reached the
+ * circuit OPENs and rejects calls until the open period has passed, after which a single trial call is
+ * let through (HALF_OPEN). A successful trial closes the circuit again and notifies the recovery
+ * listeners, a failed one reopens it.
+ * */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+
+    private final long openMillis;
+
+    private final LongSupplier clock;
+
+    private final List<Runnable> recoveryListeners = new CopyOnWriteArrayList<>();
+
+    private State state = State.CLOSED;
+
+    private int consecutiveFailures;
+
+    private long openedAt;
+
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::currentTimeMillis);
+    }
+
+    public CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /*
+     * Returns whether a call may go ahead. Every permitted call must be followed by recordSuccess or
+     * recordFailure.
+     * */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case OPEN -> {
+                if (clock.getAsLong() - openedAt < openMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            }
+            case HALF_OPEN -> {
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            }
+            default -> {
+                return true;
+            }
+        }
+    }
+
+    public void recordSuccess() {
+        boolean recovered;
+
+        synchronized (this) {
+            recovered = state != State.CLOSED;
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            trialInFlight = false;
+        }
+
+        // Listeners run outside the lock since they usually issue new calls
+        if (recovered) {
+            recoveryListeners.forEach(Runnable::run);
+        }
+    }
+
+    public synchronized void recordFailure() {
+        trialInFlight = false;
+        consecutiveFailures++;
+
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /*
+     * Registers a callback to run whenever the circuit closes after being open.
+     * */
+    public void onRecovery(Runnable listener) {
+        recoveryListeners.add(listener);
+    }
+}
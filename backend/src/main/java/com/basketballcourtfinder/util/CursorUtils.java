@@ -0,0 +1,44 @@
+package com.basketballcourtfinder.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*
+ * Encodes keyset pagination positions as opaque URL-safe cursors. A cursor holds the sort key values of
+ * the last item of a page.
+ * */
+public class CursorUtils {
+    private static final String SEPARATOR = "|";
+
+    public static String encode(Object... parts) {
+        StringBuilder builder = new StringBuilder();
+        for (Object part : parts) {
+            if (!builder.isEmpty()) {
+                builder.append(SEPARATOR);
+            }
+            builder.append(part);
+        }
+
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /*
+     * Splits a cursor back into its parts, throwing IllegalArgumentException if it is malformed.
+     * */
+    public static String[] decode(String cursor, int expectedParts) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+
+        String[] parts = decoded.split("\\|", -1);
+        if (parts.length != expectedParts) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+
+        return parts;
+    }
+}
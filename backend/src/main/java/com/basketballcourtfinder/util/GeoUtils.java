@@ -0,0 +1,40 @@
+package com.basketballcourtfinder.util;
+
+public class GeoUtils {
+    public static final double EARTH_RADIUS_METERS = 6_371_000;
+
+    /*
+     * Great-circle distance in meters between two coordinates (haversine formula).
+     */
+    public static double distance(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /*
+     * Smallest lat/lon box containing every point within the given distance of a coordinate, as
+     * {minLat, minLon, maxLat, maxLon}. Clamped to valid coordinates, boxes crossing the antimeridian
+     * are not split.
+     */
+    public static double[] boundingBox(double latitude, double longitude, double meters) {
+        double latDelta = Math.toDegrees(meters / EARTH_RADIUS_METERS);
+        double cos = Math.cos(Math.toRadians(latitude));
+        double lonDelta = cos < 1e-9 ? 180 : Math.min(180, latDelta / cos);
+
+        // Near the poles the circle spans every longitude
+        if (lonDelta >= 180) {
+            return new double[] { Math.max(-90, latitude - latDelta), -180, Math.min(90, latitude + latDelta), 180 };
+        }
+
+        return new double[] {
+                Math.max(-90, latitude - latDelta), Math.max(-180, longitude - lonDelta),
+                Math.min(90, latitude + latDelta), Math.min(180, longitude + lonDelta)
+        };
+    }
+}
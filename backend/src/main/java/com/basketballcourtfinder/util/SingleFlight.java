@@ -0,0 +1,46 @@
+package com.basketballcourtfinder.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/*
+ * Coalesces concurrent calls for the same key, so that only the first caller runs the call and every
+ * caller that arrives while it is in flight shares the same future and result.
+ * */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /*
+     * Runs the call for a key unless one is already in flight, in which case its future is returned.
+     * The key is released as soon as the call completes, so later callers trigger a fresh call.
+     * */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, promise);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        promise.whenComplete((result, error) -> inFlight.remove(key, promise));
+
+        try {
+            call.get().whenComplete((result, error) -> {
+                if (error != null) {
+                    promise.completeExceptionally(error);
+                } else {
+                    promise.complete(result);
+                }
+            });
+        } catch (Throwable e) {
+            promise.completeExceptionally(e);
+        }
+
+        return promise;
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
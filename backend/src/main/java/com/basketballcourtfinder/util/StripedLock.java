@@ -0,0 +1,96 @@
+package com.basketballcourtfinder.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/*
+ * Fixed pool of locks where every key maps to one stripe by its hash. Keys on the same stripe exclude
+ * each other, so the pool never allocates per call and a key always gets the same lock.
+ *
+ * Acquisitions that had to wait are counted as contended, along with the total time spent waiting.
+ * */
+public class StripedLock {
+    private final ReentrantLock[] stripes;
+
+    private final AtomicLong acquisitions = new AtomicLong();
+
+    private final AtomicLong contended = new AtomicLong();
+
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    /*
+     * Creates a pool with at least the given number of stripes, rounded up to a power of two.
+     * */
+    public StripedLock(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe count must be positive.");
+        }
+
+        int size = (stripeCount == 1) ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public void execute(long key, Runnable action) {
+        ReentrantLock lock = lock(key);
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <T> T execute(long key, Supplier<T> action) {
+        ReentrantLock lock = lock(key);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lock(long key) {
+        ReentrantLock lock = stripes[stripeIndex(key)];
+        acquisitions.incrementAndGet();
+
+        if (!lock.tryLock()) {
+            contended.incrementAndGet();
+            long start = System.nanoTime();
+            lock.lock();
+            waitNanos.addAndGet(System.nanoTime() - start);
+        }
+
+        return lock;
+    }
+
+    public int stripeIndex(long key) {
+        int hash = Long.hashCode(key);
+        // Spreads the high bits down like HashMap does, since only the low bits pick the stripe
+        hash ^= (hash >>> 16);
+        return hash & (stripes.length - 1);
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    public long getAcquisitionCount() {
+        return acquisitions.get();
+    }
+
+    public long getContendedCount() {
+        return contended.get();
+    }
+
+    public double getContentionRate() {
+        long total = acquisitions.get();
+        return total == 0 ? 0 : (double) contended.get() / total;
+    }
+
+    public long getWaitMillis() {
+        return waitNanos.get() / 1_000_000;
+    }
+}
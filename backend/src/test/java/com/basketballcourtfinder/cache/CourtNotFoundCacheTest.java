@@ -0,0 +1,61 @@
+package com.basketballcourtfinder.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CourtNotFoundCacheTest {
+
+    @Test
+    public void testIsNotFound_CountsHitsAndMisses() {
+        CourtNotFoundCache cache = new CourtNotFoundCache(60000, 10);
+
+        assertFalse(cache.isNotFound(1L));
+        cache.put(1L);
+        assertTrue(cache.isNotFound(1L));
+        assertTrue(cache.isNotFound(1L));
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2.0 / 3, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void testIsNotFound_ExpiredEntry() {
+        CourtNotFoundCache cache = new CourtNotFoundCache(0, 10);
+
+        cache.put(1L);
+
+        assertFalse(cache.isNotFound(1L));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testPut_EvictsLeastRecentlyUsed() {
+        CourtNotFoundCache cache = new CourtNotFoundCache(60000, 2);
+
+        cache.put(1L);
+        cache.put(2L);
+        cache.isNotFound(1L);
+        cache.put(3L);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.isNotFound(1L));
+        assertFalse(cache.isNotFound(2L));
+        assertTrue(cache.isNotFound(3L));
+    }
+
+    @Test
+    public void testRemoveAll() {
+        CourtNotFoundCache cache = new CourtNotFoundCache(60000, 10);
+
+        cache.put(1L);
+        cache.put(2L);
+        cache.removeAll(List.of(1L));
+
+        assertFalse(cache.isNotFound(1L));
+        assertTrue(cache.isNotFound(2L));
+    }
+}
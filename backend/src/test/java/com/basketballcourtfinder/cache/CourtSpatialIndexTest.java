@@ -0,0 +1,111 @@
+package com.basketballcourtfinder.cache;
+
+import com.basketballcourtfinder.dto.CourtLocation;
+import com.basketballcourtfinder.entity.BasketballCourt;
+import com.basketballcourtfinder.repository.BasketballCourtRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CourtSpatialIndexTest {
+    private BasketballCourtRepository repository;
+
+    private CourtSpatialIndex index;
+
+    @BeforeEach
+    public void setup() {
+        repository = mock(BasketballCourtRepository.class);
+        index = new CourtSpatialIndex(repository, 0.01, false);
+    }
+
+    private static BasketballCourt court(long id, double lat, double lon) {
+        BasketballCourt court = new BasketballCourt(id, "Court " + id);
+        court.setLat(lat);
+        court.setLon(lon);
+        return court;
+    }
+
+    @Test
+    public void testWithinRadius() {
+        index.put(court(1L, 43.65, -79.38));
+        index.put(court(2L, 43.655, -79.38));   // ~556m north
+        index.put(court(3L, 43.70, -79.38));    // ~5.5km north
+
+        assertThat(index.withinRadius(43.65, -79.38, 1000)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.withinRadius(43.65, -79.38, 100)).containsExactly(1L);
+    }
+
+    @Test
+    public void testDistancesWithinRadius() {
+        index.put(court(1L, 43.65, -79.38));
+        index.put(court(2L, 43.655, -79.38));   // ~556m north
+        index.put(court(3L, 43.70, -79.38));    // ~5.5km north
+
+        Map<Long, Double> distances = index.distancesWithinRadius(43.65, -79.38, 1000);
+
+        assertThat(distances).containsOnlyKeys(1L, 2L);
+        assertThat(distances.get(1L)).isEqualTo(0.0);
+        assertThat(distances.get(2L)).isBetween(550.0, 560.0);
+    }
+
+    @Test
+    public void testWithinBounds() {
+        index.put(court(1L, 43.65, -79.38));
+        index.put(court(2L, 43.70, -79.30));
+
+        assertThat(index.withinBounds(43.60, -79.40, 43.66, -79.35)).containsExactly(1L);
+        assertThat(index.withinBounds(43.60, -79.40, 43.80, -79.20)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    public void testPut_MovesCourtBetweenCells() {
+        index.put(court(1L, 43.65, -79.38));
+        index.put(court(1L, 10.0, 20.0));
+
+        assertThat(index.withinRadius(43.65, -79.38, 1000)).isEmpty();
+        assertThat(index.withinRadius(10.0, 20.0, 10)).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testPut_SkipsCourtsWithoutCoordinates() {
+        index.put(court(1L, 0, 0));
+
+        assertThat(index.contains(1L)).isFalse();
+    }
+
+    @Test
+    public void testLoad() {
+        CourtLocation location = new CourtLocation() {
+            @Override
+            public long getId() {
+                return 1L;
+            }
+
+            @Override
+            public double getLat() {
+                return 43.65;
+            }
+
+            @Override
+            public double getLon() {
+                return -79.38;
+            }
+        };
+        when(repository.findAllLocations(any()))
+                .thenReturn(new SliceImpl<>(List.of(location), PageRequest.of(0, 10000), false));
+
+        index.load();
+
+        assertThat(index.withinRadius(43.65, -79.38, 10)).containsExactly(1L);
+    }
+}
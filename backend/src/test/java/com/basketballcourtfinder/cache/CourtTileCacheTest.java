@@ -0,0 +1,77 @@
+package com.basketballcourtfinder.cache;
+
+import com.basketballcourtfinder.util.GeoUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CourtTileCacheTest {
+
+    @Test
+    public void testTileFor_NearbyPointsShareTile() {
+        CourtTileCache cache = new CourtTileCache(60000, 10);
+
+        CourtTileCache.Tile tile = cache.tileFor(43.65, -79.3832, 2000);
+        CourtTileCache.Tile panned = cache.tileFor(43.6505, -79.3835, 2000);
+
+        assertEquals(tile.getKey(), panned.getKey());
+    }
+
+    @Test
+    public void testTileFor_RadiusCoversRequestedCircle() {
+        CourtTileCache cache = new CourtTileCache(60000, 10);
+
+        CourtTileCache.Tile tile = cache.tileFor(43.65, -79.3832, 2000);
+
+        // Any point in the cell plus the requested range must stay inside the tile query
+        double offset = GeoUtils.distance(43.65, -79.3832, tile.getLatitude(), tile.getLongitude());
+        assertTrue(offset + 2000 <= tile.getRadius());
+        assertTrue(tile.getRadius() <= 2000 * 1.5);
+    }
+
+    @Test
+    public void testTileFor_DifferentRangesUseDifferentTiles() {
+        CourtTileCache cache = new CourtTileCache(60000, 10);
+
+        assertNotEquals(cache.tileFor(43.65, -79.3832, 2000).getKey(),
+                cache.tileFor(43.65, -79.3832, 5000).getKey());
+    }
+
+    @Test
+    public void testGet_ReturnsStoredIds() {
+        CourtTileCache cache = new CourtTileCache(60000, 10);
+        CourtTileCache.Tile tile = cache.tileFor(1, 2, 1000);
+
+        assertNull(cache.get(tile));
+
+        cache.put(tile, List.of(1L, 2L));
+
+        assertEquals(Set.of(1L, 2L), cache.get(tile));
+    }
+
+    @Test
+    public void testGet_ExpiredTile() {
+        CourtTileCache cache = new CourtTileCache(0, 10);
+        CourtTileCache.Tile tile = cache.tileFor(1, 2, 1000);
+
+        cache.put(tile, List.of(1L));
+
+        assertNull(cache.get(tile));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testPut_EvictsWhenFull() {
+        CourtTileCache cache = new CourtTileCache(60000, 2);
+
+        cache.put(cache.tileFor(1, 2, 1000), List.of(1L));
+        cache.put(cache.tileFor(10, 20, 1000), List.of(2L));
+        cache.put(cache.tileFor(20, 30, 1000), List.of(3L));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(cache.tileFor(20, 30, 1000)));
+    }
+}
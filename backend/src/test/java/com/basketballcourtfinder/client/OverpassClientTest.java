@@ -0,0 +1,110 @@
+package com.basketballcourtfinder.client;
+
+import com.basketballcourtfinder.exceptions.OverpassUnavailableException;
+import com.basketballcourtfinder.jsonmapping.OverpassResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
+import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@RestClientTest(components = OverpassClient.class,
+        properties = {"overpass.max-concurrent-requests=1", "overpass.request-timeout-ms=200"})
+@AutoConfigureDataJpa
+public class OverpassClientTest {
+    private static final String URL = "https://overpass-api.de/api/interpreter?data=test";
+
+    @Autowired
+    private OverpassClient client;
+
+    @Autowired
+    private MockRestServiceServer server;
+
+    @AfterEach
+    public void reset() {
+        server.reset();
+    }
+
+    @Test
+    public void testFetch_ReturnsElements() {
+        server.expect(requestTo(URL))
+                .andRespond(withSuccess("{\"elements\": [{\"id\": 7, \"tags\": {\"name\": \"Court\"}}]}",
+                        MediaType.APPLICATION_JSON));
+
+        List<OverpassResponse.Element> elements = client.fetch("test").join();
+
+        assertEquals(1, elements.size());
+        assertEquals(7, elements.get(0).getId());
+        assertEquals(1, client.availablePermits());
+    }
+
+    @Test
+    public void testFetch_ErrorStatus() {
+        server.expect(requestTo(URL)).andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS));
+
+        CompletionException e = assertThrows(CompletionException.class, () -> client.fetch("test").join());
+
+        assertInstanceOf(OverpassUnavailableException.class, e.getCause());
+    }
+
+    @Test
+    public void testFetch_RemarkIsAFailure() {
+        // Server side timeouts still answer 200, with whatever elements were found so far
+        server.expect(requestTo(URL)).andRespond(withSuccess("{\"elements\": [{\"id\": 7}], " +
+                "\"remark\": \"runtime error: Query run out of memory using about 2048 MB of RAM.\"}",
+                MediaType.APPLICATION_JSON));
+
+        CompletionException e = assertThrows(CompletionException.class, () -> client.fetch("test").join());
+
+        assertInstanceOf(OverpassUnavailableException.class, e.getCause());
+        assertTrue(e.getCause().getMessage().contains("out of memory"));
+        assertEquals(1, client.availablePermits());
+    }
+
+    @Test
+    public void testFetch_DeadlineAndPermits() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        server.expect(requestTo(URL)).andRespond(request -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return withSuccess("{\"elements\": []}", MediaType.APPLICATION_JSON).createResponse(request);
+        });
+
+        CompletableFuture<List<OverpassResponse.Element>> slow = client.fetch("test");
+
+        // The only permit is taken, so a different query fails without waiting
+        CompletionException busy = assertThrows(CompletionException.class,
+                () -> client.fetch("test2").join());
+        assertInstanceOf(OverpassUnavailableException.class, busy.getCause());
+
+        // The caller gives up at the deadline even though the request is still running
+        CompletionException timeout = assertThrows(CompletionException.class, slow::join);
+        assertInstanceOf(OverpassUnavailableException.class, timeout.getCause());
+        assertEquals(0, client.availablePermits());
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (client.availablePermits() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, client.availablePermits());
+    }
+}
@@ -0,0 +1,88 @@
+package com.basketballcourtfinder.client;
+
+import com.basketballcourtfinder.exceptions.OverpassUnavailableException;
+import com.basketballcourtfinder.jsonmapping.OverpassResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestClient;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OverpassStandInServerTest {
+    @TempDir
+    Path tempDir;
+
+    private List<OverpassResponse.Element> fixture;
+
+    private OverpassStandInServer server;
+
+    private OverpassClient client;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        Path file = tempDir.resolve("courts.json");
+        Files.writeString(file, """
+                { "elements": [
+                  { "type": "way", "id": 1, "center": { "lat": 43.65, "lon": -79.38 }, "tags": { "name": "Downtown" } },
+                  { "type": "way", "id": 2, "center": { "lat": 43.66, "lon": -79.38 }, "tags": { "name": "Uptown" } },
+                  { "type": "way", "id": 3, "center": { "lat": 45.0, "lon": -75.0 }, "tags": { "name": "Far Away" } },
+                  { "type": "way", "id": 1, "tags": { "name": "Downtown" } }
+                ] }
+                """);
+        fixture = OverpassStandInServer.loadFixture(file);
+    }
+
+    @AfterEach
+    public void teardown() {
+        client.shutdown();
+        server.close();
+    }
+
+    private void start(double errorRate) throws Exception {
+        server = new OverpassStandInServer(fixture, 0, errorRate, 429).start(0);
+        client = new OverpassClient(RestClient.builder(), server.getBaseUrl(), 2, 5000, 5, 30000);
+    }
+
+    @Test
+    public void testAroundQuery() throws Exception {
+        start(0);
+
+        List<OverpassResponse.Element> elements = client.fetch("[out:json];" +
+                "(way(around:2000,43.655,-79.38)[\"leisure\"=\"pitch\"][\"sport\"=\"basketball\"];);out center; out tags;")
+                .join();
+
+        assertEquals(List.of(1L, 2L), elements.stream().map(OverpassResponse.Element::getId).toList());
+        assertEquals(43.65, elements.get(0).getCenter().getLat());
+        assertEquals("Downtown", elements.get(0).getTag("name"));
+    }
+
+    @Test
+    public void testWayIdQuery() throws Exception {
+        start(0);
+
+        List<OverpassResponse.Element> single = client.fetch("[out:json];way(3);out tags;").join();
+        List<OverpassResponse.Element> batch = client.fetch("[out:json];way(id:2,3,99);out tags;").join();
+
+        assertEquals(1, single.size());
+        assertNull(single.get(0).getCenter());
+        assertEquals(List.of(2L, 3L), batch.stream().map(OverpassResponse.Element::getId).toList());
+    }
+
+    @Test
+    public void testErrorInjection() throws Exception {
+        start(1);
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> client.fetch("[out:json];way(1);out tags;").join());
+
+        assertInstanceOf(OverpassUnavailableException.class, e.getCause());
+        assertEquals(1, server.getRequestCount());
+    }
+}
@@ -1,7 +1,11 @@
 package com.basketballcourtfinder.controller;
 
+import com.basketballcourtfinder.dto.CourtMarker;
+import com.basketballcourtfinder.dto.CourtPageDTO;
 import com.basketballcourtfinder.dto.CourtsDTO;
+import com.basketballcourtfinder.dto.NearbyCourtDTO;
 import com.basketballcourtfinder.entity.BasketballCourt;
+import com.basketballcourtfinder.exceptions.OverpassUnavailableException;
 import com.basketballcourtfinder.service.BasketballCourtService;
 import com.basketballcourtfinder.service.UserService;
 import com.basketballcourtfinder.util.PasswordUtils;
@@ -15,6 +19,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
@@ -75,6 +80,98 @@ public class BasketballCourtControllerTest {
                 .andExpect(jsonPath("$[*].name", containsInAnyOrder("Test Court 1", "Test Court 2"))); // Verify names in any order
     }
 
+    @Test
+    public void testGetCourtsPaged() throws Exception {
+        CourtPageDTO page = new CourtPageDTO(List.of(new NearbyCourtDTO(new BasketballCourt(1L, "Test Court 1"), 12.5)),
+                "next");
+
+        when(courtService.getNearestCourts(1, 2, 1000, 20, null)).thenReturn(page);
+
+        mockMvc.perform(get("/api/courts/around")
+                .param("latitude", "1")
+                .param("longitude", "2")
+                .param("range", "1000")
+                .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.courts[0].id").value(1))
+                .andExpect(jsonPath("$.courts[0].name").value("Test Court 1"))
+                .andExpect(jsonPath("$.courts[0].distance").value(12.5))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    private static CourtMarker marker(long id, double lat, double lon, String name) {
+        return new CourtMarker() {
+            public long getId() { return id; }
+            public double getLat() { return lat; }
+            public double getLon() { return lon; }
+            public String getName() { return name; }
+        };
+    }
+
+    @Test
+    public void testGetCourtMarkers() throws Exception {
+        when(courtService.getCourtMarkersInArea(1, 2, 1000)).thenReturn(List.of(marker(1L, 1.5, 2.5, "Test Court 1")));
+
+        mockMvc.perform(get("/api/courts/around")
+                .param("latitude", "1")
+                .param("longitude", "2")
+                .param("range", "1000")
+                .param("view", "marker"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].name").value("Test Court 1"))
+                .andExpect(jsonPath("$[0].address").doesNotExist());
+    }
+
+    @Test
+    public void testGetCourtsCompact() throws Exception {
+        when(courtService.getCourtMarkersInArea(1, 2, 1000)).thenReturn(List.of(marker(1L, 1.5, 2.5, "Test Court 1")));
+
+        mockMvc.perform(get("/api/courts/around")
+                .param("latitude", "1")
+                .param("longitude", "2")
+                .param("range", "1000")
+                .param("view", "compact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fields[3]").value("name"))
+                .andExpect(jsonPath("$.rows[0][0]").value(1))
+                .andExpect(jsonPath("$.rows[0][1]").value(1.5))
+                .andExpect(jsonPath("$.rows[0][3]").value("Test Court 1"));
+    }
+
+    @Test
+    public void testGetCourtsUnknownView() throws Exception {
+        mockMvc.perform(get("/api/courts/around")
+                .param("latitude", "1")
+                .param("longitude", "2")
+                .param("range", "1000")
+                .param("view", "binary"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetCourtsBatch() throws Exception {
+        when(courtService.getCourts(List.of(2L, 1L))).thenReturn(
+                List.of(new BasketballCourt(2L, "Test Court 2"), new BasketballCourt(1L, "Test Court 1")));
+
+        mockMvc.perform(get("/api/courts/batch").param("ids", "2,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(2))
+                .andExpect(jsonPath("$[1].id").value(1));
+    }
+
+    @Test
+    public void testGetCourts_OverpassUnavailable() throws Exception {
+        when(courtService.getCourtsInArea(1, 2, 1000))
+                .thenThrow(new OverpassUnavailableException("Overpass did not respond within 30000 ms"));
+
+        mockMvc.perform(get("/api/courts/around")
+                .param("latitude", "1")
+                .param("longitude", "2")
+                .param("range", "1000"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     public void testPartialUpdateSuccess() throws Exception {
         long mockId = 1L;
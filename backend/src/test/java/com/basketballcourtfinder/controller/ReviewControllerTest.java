@@ -89,7 +89,7 @@ public class ReviewControllerTest {
         responseMap.put("userReview", userReview);
         responseMap.put("otherReviews", otherReviews);
 
-        when(reviewService.findCourtReviews(courtId, userId, 1, 10, SortMethod.NEWEST)).thenReturn(responseMap);
+        when(reviewService.findCourtReviews(courtId, userId, 1, 10, SortMethod.NEWEST, null)).thenReturn(responseMap);
 
         mockMvc.perform(get("/api/review")
                         .param("courtId", String.valueOf(courtId)))
@@ -102,6 +102,35 @@ public class ReviewControllerTest {
                 .andExpect(jsonPath("$.otherReviews[0].content").value("Decent court."));
     }
 
+    @Test
+    public void testGetReviewWithCursor() throws Exception {
+        Map<String, Object> responseMap = new HashMap<>();
+        responseMap.put("otherReviews", List.of());
+        responseMap.put("nextCursor", "next");
+
+        when(reviewService.findCourtReviews(eq(1L), any(), eq(1), eq(10), eq(SortMethod.HIGHEST), eq("abc")))
+                .thenReturn(responseMap);
+
+        mockMvc.perform(get("/api/review")
+                        .param("courtId", "1")
+                        .param("sortMethod", "HIGHEST")
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    public void testGetReviewWithInvalidCursor() throws Exception {
+        when(reviewService.findCourtReviews(eq(1L), any(), eq(1), eq(10), eq(SortMethod.NEWEST), eq("bad")))
+                .thenThrow(new IllegalArgumentException("Invalid cursor."));
+
+        mockMvc.perform(get("/api/review")
+                        .param("courtId", "1")
+                        .param("cursor", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid cursor."));
+    }
+
     @Test
     public void testGetReviewWithFailedAuthorization() throws Exception {
 
@@ -366,4 +395,30 @@ public class ReviewControllerTest {
                 .andExpect(jsonPath("rating").value(5))
                 .andExpect(jsonPath("reviews").value(1));
     }
+
+    @Test
+    public void testBulkRatingRetrieval() throws Exception {
+        Map<Long, Map<String, ?>> ratings = new LinkedHashMap<>();
+        ratings.put(1L, Map.of("rating", 4.5, "reviews", 2));
+        ratings.put(2L, Map.of("rating", 0.0, "reviews", 0));
+
+        when(reviewService.getCourtRatings(List.of(1L, 2L))).thenReturn(ratings);
+
+        mockMvc.perform(get("/api/review/ratings")
+                .param("courtIds", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.1.rating").value(4.5))
+                .andExpect(jsonPath("$.1.reviews").value(2))
+                .andExpect(jsonPath("$.2.reviews").value(0));
+    }
+
+    @Test
+    public void testBulkRatingRetrievalTooManyCourts() throws Exception {
+        when(reviewService.getCourtRatings(anyList())).thenThrow(new IllegalArgumentException("Too many"));
+
+        mockMvc.perform(get("/api/review/ratings")
+                .param("courtIds", "1,2"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Too many"));
+    }
 }
@@ -0,0 +1,145 @@
+package com.basketballcourtfinder.importer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class CourtImporterTest {
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Object[]> rows;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        rows = new ArrayList<>();
+
+        // Batches are reused after flushing, so rows are copied as they are written
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            rows.addAll(new ArrayList<>((List<Object[]>) invocation.getArgument(1)));
+            return new int[0];
+        });
+    }
+
+    @Test
+    public void testImportFile_OverpassJson() throws Exception {
+        Path file = tempDir.resolve("courts.json");
+        Files.writeString(file, """
+                { "elements": [
+                  { "type": "way", "id": 1, "center": { "lat": 1.0, "lon": 2.0 },
+                    "tags": { "leisure": "pitch", "sport": "basketball;soccer", "name": "Pitch" } },
+                  { "type": "way", "id": 2, "center": { "lat": 3.0, "lon": 4.0 },
+                    "tags": { "amenity": "school", "sport": "basketball", "hoops": "4" } },
+                  { "type": "way", "id": 3, "center": { "lat": 5.0, "lon": 6.0 },
+                    "tags": { "leisure": "pitch", "sport": "tennis" } },
+                  { "type": "way", "id": 1,
+                    "tags": { "leisure": "pitch", "sport": "basketball;soccer", "name": "Pitch" } }
+                ] }
+                """);
+
+        long written = new CourtImporter(jdbcTemplate, 1).importFile(file);
+
+        assertEquals(2, written);
+        assertEquals(2, rows.size());
+        assertEquals(1L, rows.get(0)[0]);
+        assertEquals("Pitch", rows.get(0)[3]);
+        assertEquals(2L, rows.get(1)[0]);
+        assertEquals(4, rows.get(1)[4]);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    public void testImportFile_OsmXmlResolvesNodes() throws Exception {
+        Path file = tempDir.resolve("extract.osm");
+        Files.writeString(file, """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <osm version="0.6">
+                  <node id="10" lat="1.0" lon="2.0"/>
+                  <node id="11" lat="1.2" lon="2.4"/>
+                  <node id="12" lat="9.0" lon="9.0"/>
+                  <way id="100">
+                    <nd ref="10"/>
+                    <nd ref="11"/>
+                    <tag k="leisure" v="pitch"/>
+                    <tag k="sport" v="basketball"/>
+                    <tag k="name" v="Park Court"/>
+                    <tag k="lit" v="yes"/>
+                  </way>
+                  <way id="101">
+                    <nd ref="12"/>
+                    <tag k="highway" v="residential"/>
+                  </way>
+                  <way id="102">
+                    <center lat="5.0" lon="6.0"/>
+                    <tag k="amenity" v="community_centre"/>
+                  </way>
+                </osm>
+                """);
+
+        long written = new CourtImporter(jdbcTemplate, 10).importFile(file);
+
+        assertEquals(2, written);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+
+        // Ways with a center are written first, the rest once their nodes are resolved
+        assertEquals(102L, rows.get(0)[0]);
+        assertEquals(100L, rows.get(1)[0]);
+        assertEquals(1.1, (double) rows.get(1)[1], 1e-9);
+        assertEquals(2.2, (double) rows.get(1)[2], 1e-9);
+        assertEquals("Park Court", rows.get(1)[3]);
+    }
+
+    @Test
+    public void testImportFile_UpsertOnlyRefreshesCoordinates() throws Exception {
+        Path file = tempDir.resolve("courts.json");
+        Files.writeString(file, "{ \"elements\": [ { \"id\": 1, \"center\": { \"lat\": 1.0, \"lon\": 2.0 }, " +
+                "\"tags\": { \"amenity\": \"community_centre\" } } ] }");
+
+        new CourtImporter(jdbcTemplate, 10).importFile(file);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), anyList());
+        assertTrue(sql.getValue().endsWith("ON DUPLICATE KEY UPDATE lat = VALUES(lat), lon = VALUES(lon)"));
+    }
+
+    @Test
+    public void testImportFile_FillsNotNullColumns() throws Exception {
+        Path file = tempDir.resolve("courts.json");
+        Files.writeString(file, "{ \"elements\": [ { \"id\": 1, \"center\": { \"lat\": 1.0, \"lon\": 2.0 }, " +
+                "\"tags\": { \"amenity\": \"community_centre\" } } ] }");
+
+        new CourtImporter(jdbcTemplate, 10).importFile(file);
+
+        // Every column without a database default has to be part of the insert
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), anyList());
+        assertTrue(sql.getValue().contains("last_synced_at, edited_fields)"));
+        assertTrue(sql.getValue().contains("?, 0)"));
+        assertEquals(18, rows.get(0).length);
+        assertInstanceOf(Timestamp.class, rows.get(0)[17]);
+    }
+
+    @Test
+    public void testImportFile_UnsupportedFormat() {
+        CourtImporter importer = new CourtImporter(jdbcTemplate, 10);
+
+        assertThrows(IllegalArgumentException.class, () -> importer.importFile(tempDir.resolve("extract.osm.pbf")));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
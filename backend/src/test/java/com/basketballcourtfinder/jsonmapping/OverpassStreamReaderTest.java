@@ -0,0 +1,90 @@
+package com.basketballcourtfinder.jsonmapping;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OverpassStreamReaderTest {
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRead_KeepsOnlyCourtTags() throws IOException {
+        String body = """
+                {
+                  "version": 0.6,
+                  "osm3s": { "timestamp_osm_base": "2024-12-25T00:00:00Z" },
+                  "elements": [
+                    {
+                      "type": "way",
+                      "id": 1,
+                      "center": { "lat": 1.5, "lon": 2.5 },
+                      "nodes": [10, 11, 12],
+                      "tags": {
+                        "name": "Court",
+                        "hoops": "2",
+                        "addr:city": "Toronto",
+                        "sport": "basketball",
+                        "note": "ignored"
+                      }
+                    },
+                    { "type": "way", "id": 2, "tags": { "leisure": "pitch" } }
+                  ],
+                  "remark": "trailing fields are skipped"
+                }
+                """;
+
+        List<OverpassResponse.Element> elements = new ArrayList<>();
+        OverpassStreamReader.read(json(body), elements::add);
+
+        assertEquals(2, elements.size());
+
+        OverpassResponse.Element first = elements.get(0);
+        assertEquals("way", first.getType());
+        assertEquals(1, first.getId());
+        assertEquals(1.5, first.getCenter().getLat());
+        assertEquals(2.5, first.getCenter().getLon());
+        assertEquals(Map.of("name", "Court", "hoops", "2", "addr:city", "Toronto", "sport", "basketball"),
+                first.getTags());
+
+        OverpassResponse.Element second = elements.get(1);
+        assertEquals(2, second.getId());
+        assertNull(second.getCenter());
+        assertEquals("pitch", second.getTag("leisure"));
+    }
+
+    @Test
+    public void testRead_EmptyElements() throws IOException {
+        List<OverpassResponse.Element> elements = new ArrayList<>();
+        OverpassStreamReader.read(json("{\"elements\": []}"), elements::add);
+
+        assertTrue(elements.isEmpty());
+    }
+
+    @Test
+    public void testRead_ReturnsRemark() throws IOException {
+        List<OverpassResponse.Element> elements = new ArrayList<>();
+        String remark = OverpassStreamReader.read(json("{\"elements\": [{\"id\": 1}], " +
+                "\"remark\": \"runtime error: Query timed out in \\\"query\\\" at line 1 after 25 seconds.\"}"),
+                elements::add);
+
+        assertEquals(1, elements.size());
+        assertEquals("runtime error: Query timed out in \"query\" at line 1 after 25 seconds.", remark);
+        assertNull(OverpassStreamReader.read(json("{\"elements\": []}"), element -> {}));
+    }
+
+    @Test
+    public void testRead_NotAnObject() {
+        assertThrows(IOException.class, () -> OverpassStreamReader.read(json("[]"), element -> {}));
+    }
+}
@@ -1,8 +1,17 @@
 package com.basketballcourtfinder.service;
 
+import com.basketballcourtfinder.cache.CourtNotFoundCache;
+import com.basketballcourtfinder.cache.CourtSpatialIndex;
+import com.basketballcourtfinder.cache.CourtTileCache;
+import com.basketballcourtfinder.client.OverpassClient;
+import com.basketballcourtfinder.dto.CourtMarker;
+import com.basketballcourtfinder.dto.CourtPageDTO;
 import com.basketballcourtfinder.entity.BasketballCourt;
+import com.basketballcourtfinder.enums.CourtField;
 import com.basketballcourtfinder.exceptions.EntityNotFoundException;
+import com.basketballcourtfinder.jsonmapping.OverpassResponse;
 import com.basketballcourtfinder.repository.BasketballCourtRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
@@ -12,17 +21,32 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.client.MockRestServiceServer;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 
-@RestClientTest(BasketballCourtService.class)
+@RestClientTest(components = {BasketballCourtService.class, OverpassClient.class, CourtTileCache.class,
+        CourtSpatialIndex.class, CourtNotFoundCache.class},
+        properties = {"courts.spatial-index.load-on-startup=false", "overpass.circuit-breaker.failure-threshold=1",
+                "overpass.circuit-breaker.open-ms=0"})
 @AutoConfigureDataJpa
 public class BasketballCourtServiceTest {
         @Autowired
@@ -34,6 +58,22 @@ public class BasketballCourtServiceTest {
         @Autowired
         private MockRestServiceServer server;
 
+        @Autowired
+        private CourtTileCache tileCache;
+
+        @Autowired
+        private CourtSpatialIndex spatialIndex;
+
+        @Autowired
+        private CourtNotFoundCache notFoundCache;
+
+        @BeforeEach
+        public void setup() {
+                tileCache.clear();
+                spatialIndex.clear();
+                notFoundCache.clear();
+        }
+
         @Test
         public void test_getCourtInDatabase() throws Exception {
                 long mock_courtId = 1L;
@@ -81,6 +121,24 @@ public class BasketballCourtServiceTest {
                 assertEquals("Test Court", court.getName()); // Ensure the court name is correctly mapped
         }
 
+        @Test
+        public void test_getCourtNotInOverpass_isRemembered() throws Exception {
+                when(repository.findById(404L)).thenReturn(Optional.empty());
+
+                // Only the first lookup reaches Overpass
+                this.server.expect(requestTo(containsString("way(404);out%20tags;")))
+                                .andRespond(withStatus(HttpStatus.OK)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .body("{ \"elements\": [] }"));
+
+                assertNull(service.getCourt(404L));
+                assertNull(service.getCourt(404L));
+
+                server.verify();
+                assertEquals(1, notFoundCache.getHitCount());
+                assertEquals(1, notFoundCache.getMissCount());
+        }
+
         @Test
         public void test_getCourtsInArea() throws Exception {
                 double lat = 1;
@@ -100,10 +158,10 @@ public class BasketballCourtServiceTest {
 
                 // Mocking the response from RestClient API
                 this.server.expect(requestTo("https://overpass-api.de/api/interpreter?data=%5Bout:json%5D;" +
-                                "(way(around:1000,1.000000,2.000000)%5B%22amenity%22%3D%22community_centre%22%5D;" +
-                                "way(around:1000,1.000000,2.000000)%5B%22leisure%22%3D%22pitch%22%5D%5B%22sport%22%3D%22"
+                                "(way(around:1108,1.000443,2.000198)%5B%22amenity%22%3D%22community_centre%22%5D;" +
+                                "way(around:1108,1.000443,2.000198)%5B%22leisure%22%3D%22pitch%22%5D%5B%22sport%22%3D%22"
                                 +
-                                "basketball%22%5D;way(around:1000,1.000000,2.000000)%5B%22amenity%22%3D%22school" +
+                                "basketball%22%5D;way(around:1108,1.000443,2.000198)%5B%22amenity%22%3D%22school" +
                                 "%22%5D%5B%22sport%22%3D%22basketball%22%5D;);out%20center;%20out%20tags;"))
                                 .andRespond(withStatus(HttpStatus.OK)
                                                 .contentType(MediaType.APPLICATION_JSON)
@@ -118,6 +176,264 @@ public class BasketballCourtServiceTest {
                 assert (courts.size() == 1); // Make sure something in the set
         }
 
+        @Test
+        public void test_getCourtsInArea_reusesCachedTile() throws Exception {
+                String mockOverpassResponseJson = "{ \"elements\": [ { \"id\": 1" +
+                                ", \"tags\": { \"name\": \"Test Court\" }, \"center\": {\"lat\": 1, \"lon\": 2 }}," +
+                                " { \"id\": 2, \"tags\": { \"name\": \"Far Court\" }, \"center\": {\"lat\": 1.0095, \"lon\": 2 }} ] }";
+
+                // Only one upstream request is expected for both calls
+                this.server.expect(requestTo(containsString("around:1108,1.000443,2.000198")))
+                                .andRespond(withStatus(HttpStatus.OK)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .body(mockOverpassResponseJson));
+
+                when(repository.findByIdIn(List.of(1L, 2L))).thenReturn(List.of());
+
+                Set<BasketballCourt> first = service.getCourtsInArea(1, 2, 1000);
+
+                // A small pan inside the same tile is answered from the cached court IDs, and only the
+                // courts the spatial index finds in range are loaded
+                BasketballCourt court = new BasketballCourt(1L, "Test Court");
+                court.setLat(1);
+                court.setLon(2);
+                when(repository.findByIdIn(List.of(1L))).thenReturn(List.of(court));
+
+                Set<BasketballCourt> second = service.getCourtsInArea(1.0001, 2.0001, 1000);
+
+                server.verify();
+                assertEquals(1, first.size());
+                assertEquals(1, second.size());
+                assertEquals(1L, second.iterator().next().getId());
+                verify(repository, times(1)).saveAll(any());
+        }
+
+        @Test
+        public void test_getCourtsInArea_servesPersistedCourtsWhileOverpassIsDown() throws Exception {
+                BasketballCourt court = new BasketballCourt(1L, "Persisted Court");
+                court.setLat(1);
+                court.setLon(2);
+                // Inside the bounding box but outside the radius
+                BasketballCourt corner = new BasketballCourt(2L, "Corner Court");
+                corner.setLat(1.0085);
+                corner.setLon(2.0085);
+                when(repository.findInBounds(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                                .thenReturn(List.of(court, corner));
+                when(repository.findByIdIn(List.of(1L))).thenReturn(List.of(court));
+
+                this.server.expect(requestTo(containsString("around:1108,1.000443,2.000198")))
+                                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+                this.server.expect(requestTo(containsString("around:")))
+                                .andRespond(withStatus(HttpStatus.OK)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .body("{ \"elements\": [] }"));
+                this.server.expect(requestTo(containsString("around:1108,1.000443,2.000198")))
+                                .andRespond(withStatus(HttpStatus.OK)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .body("{ \"elements\": [ { \"id\": 1, \"center\": {\"lat\": 1, \"lon\": 2 }} ] }"));
+
+                // Overpass fails, so the persisted court is served and the tile is queued for a refresh
+                Set<BasketballCourt> stale = service.getCourtsInArea(1, 2, 1000);
+
+                assertEquals(Set.of(court), stale);
+                assertEquals(1, service.staleTileCount());
+
+                // Overpass answers again for another area, which closes the circuit and refreshes the stale tile
+                service.getCourtsInArea(10, 20, 1000);
+
+                CourtTileCache.Tile staleTile = tileCache.tileFor(1, 2, 1000);
+                long deadline = System.currentTimeMillis() + 5000;
+                while (tileCache.get(staleTile) == null && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(10);
+                }
+
+                server.verify();
+                assertEquals(Set.of(1L), tileCache.get(staleTile));
+                assertEquals(0, service.staleTileCount());
+        }
+
+        @Test
+        public void test_getCourts_fetchesMissesInOneQuery() throws Exception {
+                BasketballCourt persisted = new BasketballCourt(2L, "Persisted Court");
+                when(repository.findByIdIn(List.of(3L, 2L, 1L, 4L))).thenReturn(List.of(persisted));
+
+                this.server.expect(requestTo(containsString("way(id:3,1,4);out%20center;")))
+                                .andRespond(withStatus(HttpStatus.OK)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .body("{ \"elements\": [" +
+                                                                " { \"id\": 1, \"center\": {\"lat\": 1, \"lon\": 2 }, \"tags\": { \"name\": \"Court 1\" }}," +
+                                                                " { \"id\": 3, \"center\": {\"lat\": 3, \"lon\": 4 }, \"tags\": { \"name\": \"Court 3\" }} ] }"));
+
+                List<BasketballCourt> courts = service.getCourts(List.of(3L, 2L, 1L, 4L, 2L));
+
+                server.verify();
+                // Requested order is kept and the unknown ID is left out
+                assertEquals(List.of(3L, 2L, 1L), courts.stream().map(BasketballCourt::getId).toList());
+                assertTrue(spatialIndex.contains(1L));
+                verify(repository, times(1)).saveAll(any());
+        }
+
+        @Test
+        public void test_getCourts_tooManyIds() {
+                List<Long> ids = new ArrayList<>();
+                for (long id = 0; id <= BasketballCourtService.MAX_BATCH_SIZE; id++) {
+                        ids.add(id);
+                }
+
+                assertThrows(IllegalArgumentException.class, () -> service.getCourts(ids));
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void test_getNearestCourts_pagesByDistance() throws Exception {
+                // Courts at roughly 0m, 555m and 111m from the requested point
+                String mockOverpassResponseJson = "{ \"elements\": [" +
+                                " { \"id\": 1, \"center\": {\"lat\": 1, \"lon\": 2 }, \"tags\": { \"name\": \"A\" }}," +
+                                " { \"id\": 2, \"center\": {\"lat\": 1.005, \"lon\": 2 }, \"tags\": { \"name\": \"B\" }}," +
+                                " { \"id\": 3, \"center\": {\"lat\": 1.001, \"lon\": 2 }, \"tags\": { \"name\": \"C\" }} ] }";
+
+                this.server.expect(requestTo(containsString("around:1108,1.000443,2.000198")))
+                                .andRespond(withStatus(HttpStatus.OK)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .body(mockOverpassResponseJson));
+
+                Map<Long, BasketballCourt> saved = new HashMap<>();
+                when(repository.saveAll(any())).thenAnswer(invocation -> {
+                        ((Iterable<BasketballCourt>) invocation.getArgument(0)).forEach(court -> saved.put(court.getId(), court));
+                        return null;
+                });
+                when(repository.findByIdIn(anyList())).thenAnswer(invocation -> ((List<Long>) invocation.getArgument(0))
+                                .stream().map(saved::get).filter(Objects::nonNull).toList());
+
+                CourtPageDTO first = service.getNearestCourts(1, 2, 1000, 2, null);
+
+                assertEquals(List.of(1L, 3L), first.getCourts().stream().map(nearby -> nearby.getCourt().getId()).toList());
+                assertEquals(0, first.getCourts().get(0).getDistance(), 1e-6);
+                assertNotNull(first.getNextCursor());
+
+                // The next page comes from the cached tile
+                CourtPageDTO second = service.getNearestCourts(1, 2, 1000, 2, first.getNextCursor());
+
+                server.verify();
+                assertEquals(List.of(2L), second.getCourts().stream().map(nearby -> nearby.getCourt().getId()).toList());
+                assertNull(second.getNextCursor());
+                verify(repository).findByIdIn(List.of(2L));
+        }
+
+        @Test
+        public void test_getNearestCourts_loadsOnlyThePage() throws Exception {
+                CourtTileCache.Tile tile = tileCache.tileFor(1, 2, 1000);
+                tileCache.put(tile, List.of(1L, 2L, 3L, 4L));
+                spatialIndex.put(1L, 1.004, 2);
+                spatialIndex.put(2L, 1.001, 2);
+                spatialIndex.put(3L, 1.003, 2);
+                spatialIndex.put(4L, 1.002, 2);
+
+                BasketballCourt court4 = new BasketballCourt(4L, "D");
+                court4.setLat(1.002);
+                court4.setLon(2);
+                BasketballCourt court3 = new BasketballCourt(3L, "C");
+                court3.setLat(1.003);
+                court3.setLon(2);
+                when(repository.findByIdIn(List.of(4L, 3L))).thenReturn(List.of(court3, court4));
+
+                // Second page of two, after court 2 at roughly 111m
+                String cursor = service.getNearestCourts(1, 2, 1000, 1, null).getNextCursor();
+                CourtPageDTO page = service.getNearestCourts(1, 2, 1000, 2, cursor);
+
+                assertEquals(List.of(4L, 3L), page.getCourts().stream().map(nearby -> nearby.getCourt().getId()).toList());
+                assertEquals(222, page.getCourts().get(0).getDistance(), 1);
+                assertNotNull(page.getNextCursor());
+                verify(repository).findByIdIn(List.of(2L));
+                verify(repository).findByIdIn(List.of(4L, 3L));
+                verify(repository, times(2)).findByIdIn(anyList());
+        }
+
+        @Test
+        public void test_getCourtMarkersInArea_readsProjection() throws Exception {
+                CourtTileCache.Tile tile = tileCache.tileFor(1, 2, 1000);
+                tileCache.put(tile, List.of(1L, 2L));
+                spatialIndex.put(1L, 1, 2);
+                spatialIndex.put(2L, 1.5, 2);
+
+                CourtMarker marker = mock(CourtMarker.class);
+                when(repository.findMarkersByIdIn(List.of(1L))).thenReturn(List.of(marker));
+
+                List<CourtMarker> markers = service.getCourtMarkersInArea(1, 2, 1000);
+
+                assertEquals(List.of(marker), markers);
+                verify(repository, never()).findByIdIn(anyList());
+        }
+
+        @Test
+        public void test_getNearestCourts_invalidArguments() {
+                assertThrows(IllegalArgumentException.class, () -> service.getNearestCourts(1, 2, 1000, 0, null));
+                assertThrows(IllegalArgumentException.class, () -> service.getNearestCourts(1, 2, 1000, 10, "not a cursor"));
+        }
+
+        private static OverpassResponse.Element element(long id, Double lat, Double lon) {
+                OverpassResponse.Element element = new OverpassResponse.Element();
+                element.setId(id);
+                element.setTags(Map.of("name", "Court " + id));
+                if (lat != null) {
+                        OverpassResponse.Element.Center center = new OverpassResponse.Element.Center();
+                        center.setLat(lat);
+                        center.setLon(lon);
+                        element.setCenter(center);
+                }
+                return element;
+        }
+
+        @Test
+        public void test_mergeCourts() {
+                BasketballCourt existing = new BasketballCourt(1L, "Existing Court");
+                existing.setLat(1);
+                existing.setLon(2);
+                BasketballCourt withoutCoordinates = new BasketballCourt(2L, "Court Saved By ID");
+
+                // Overpass lists each element twice, once with its center and once with tags only
+                List<OverpassResponse.Element> elements = List.of(
+                                element(1L, 1.0, 2.0), element(2L, 3.0, 4.0), element(3L, 5.0, 6.0),
+                                element(1L, null, null), element(2L, null, null), element(3L, null, null),
+                                element(4L, null, null));
+
+                BasketballCourtService.CourtMerge merge = BasketballCourtService.mergeCourts(elements,
+                                List.of(existing, withoutCoordinates));
+
+                assertEquals(3, merge.courts.size());
+                assertSame(existing, merge.courts.get(1L));
+                assertEquals(3.0, merge.courts.get(2L).getLat());
+                assertEquals(List.of(2L, 3L), merge.toSave.stream().map(BasketballCourt::getId).toList());
+        }
+
+        @Test
+        public void test_mergeCourts_scalesWithElementCount() {
+                // Dense city sized response where half of the courts are already persisted. Matching every
+                // element against every existing court takes billions of comparisons at this size, a hashed
+                // lookup finishes in milliseconds.
+                int count = 100_000;
+                List<OverpassResponse.Element> elements = new ArrayList<>(count * 2);
+                List<BasketballCourt> existingCourts = new ArrayList<>(count / 2);
+                for (long id = 1; id <= count; id++) {
+                        elements.add(element(id, 1.0 + id * 1e-6, 2.0));
+                        if (id % 2 == 0) {
+                                BasketballCourt court = new BasketballCourt(id, "Court " + id);
+                                court.setLat(1.0 + id * 1e-6);
+                                court.setLon(2.0);
+                                existingCourts.add(court);
+                        }
+                }
+                for (long id = 1; id <= count; id++) {
+                        elements.add(element(id, null, null));
+                }
+
+                BasketballCourtService.CourtMerge merge = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                                () -> BasketballCourtService.mergeCourts(elements, existingCourts));
+
+                assertEquals(count, merge.courts.size());
+                assertEquals(count / 2, merge.toSave.size());
+        }
+
         @Test
         public void testPartialUpdate_SuccessfulUpdate() {
                 BasketballCourt updates = new BasketballCourt();
@@ -140,6 +456,8 @@ public class BasketballCourtServiceTest {
 
                 assertNotNull(updatedCourt);
                 assertEquals(2, updatedCourt.getNetting());
+                assertTrue(updatedCourt.isEdited(CourtField.NAME));
+                assertFalse(updatedCourt.isEdited(CourtField.SURFACE));
         }
 
         @Test
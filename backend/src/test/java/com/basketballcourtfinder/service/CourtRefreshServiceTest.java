@@ -0,0 +1,136 @@
+package com.basketballcourtfinder.service;
+
+import com.basketballcourtfinder.cache.CourtSpatialIndex;
+import com.basketballcourtfinder.client.OverpassClient;
+import com.basketballcourtfinder.entity.BasketballCourt;
+import com.basketballcourtfinder.enums.CourtField;
+import com.basketballcourtfinder.exceptions.OverpassUnavailableException;
+import com.basketballcourtfinder.jsonmapping.OverpassResponse;
+import com.basketballcourtfinder.repository.BasketballCourtRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class CourtRefreshServiceTest {
+    private BasketballCourtRepository repository;
+
+    private OverpassClient overpassClient;
+
+    private CourtRefreshService refreshService;
+
+    @BeforeEach
+    public void setup() {
+        repository = mock(BasketballCourtRepository.class);
+        overpassClient = mock(OverpassClient.class);
+        refreshService = new CourtRefreshService(repository, overpassClient,
+                new CourtSpatialIndex(repository, 0.01, false),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 2, 1000);
+    }
+
+    private static OverpassResponse.Element element(long id, Map<String, String> tags) {
+        OverpassResponse.Element element = new OverpassResponse.Element();
+        element.setId(id);
+        element.setTags(tags);
+        OverpassResponse.Element.Center center = new OverpassResponse.Element.Center();
+        center.setLat(1);
+        center.setLon(2);
+        element.setCenter(center);
+        return element;
+    }
+
+    @Test
+    public void testRefresh_KeepsUserEdits() {
+        BasketballCourt edited = new BasketballCourt(1L, "User Name");
+        edited.markEdited(CourtField.NAME);
+        edited.setSurface("asphalt");
+        BasketballCourt untouched = new BasketballCourt(2L, "Old Name");
+
+        when(repository.findSyncedBefore(any(), any())).thenReturn(List.of(edited, untouched));
+        when(repository.findAllForUpdate(List.of(1L, 2L))).thenReturn(List.of(edited, untouched));
+        when(overpassClient.fetch("[out:json];way(id:1,2);out center;")).thenReturn(CompletableFuture.completedFuture(
+                List.of(element(1L, Map.of("name", "OSM Name", "surface", "concrete")),
+                        element(2L, Map.of("name", "New Name")))));
+
+        refreshService.refreshStaleCourts();
+
+        assertEquals("User Name", edited.getName());
+        assertEquals("concrete", edited.getSurface());
+        assertEquals("New Name", untouched.getName());
+        assertEquals(1, untouched.getLat());
+        assertNotNull(edited.getLastSyncedAt());
+        assertNotNull(untouched.getLastSyncedAt());
+        verify(repository).saveAll(List.of(edited, untouched));
+    }
+
+    @Test
+    public void testRefresh_KeepsEditsMadeDuringFetch() {
+        BasketballCourt stale = new BasketballCourt(1L, "Old Name");
+
+        // A user renames the court while the Overpass query is running
+        BasketballCourt current = new BasketballCourt(1L, "User Name");
+        current.markEdited(CourtField.NAME);
+
+        when(repository.findSyncedBefore(any(), any())).thenReturn(List.of(stale));
+        when(repository.findAllForUpdate(List.of(1L))).thenReturn(List.of(current));
+        when(overpassClient.fetch(any())).thenReturn(CompletableFuture.completedFuture(
+                List.of(element(1L, Map.of("name", "OSM Name", "surface", "concrete")))));
+
+        refreshService.refreshStaleCourts();
+
+        // Upstream values land on the reloaded row and the copy loaded before the fetch is never saved
+        assertEquals("User Name", current.getName());
+        assertTrue(current.isEdited(CourtField.NAME));
+        assertEquals("concrete", current.getSurface());
+        assertNotNull(current.getLastSyncedAt());
+        verify(repository).saveAll(List.of(current));
+        verify(repository, never()).saveAll(List.of(stale));
+    }
+
+    @Test
+    public void testRefresh_MarksCourtsMissingUpstreamAsSynced() {
+        BasketballCourt court = new BasketballCourt(1L, "Removed Court");
+
+        when(repository.findSyncedBefore(any(), any())).thenReturn(List.of(court));
+        when(repository.findAllForUpdate(List.of(1L))).thenReturn(List.of(court));
+        when(overpassClient.fetch(any())).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        refreshService.refreshStaleCourts();
+
+        assertEquals("Removed Court", court.getName());
+        assertNotNull(court.getLastSyncedAt());
+        verify(repository).saveAll(List.of(court));
+    }
+
+    @Test
+    public void testRefresh_OverpassUnavailable() {
+        BasketballCourt court = new BasketballCourt(1L, "Court");
+
+        when(repository.findSyncedBefore(any(), any())).thenReturn(List.of(court));
+        when(overpassClient.fetch(any())).thenReturn(
+                CompletableFuture.failedFuture(new OverpassUnavailableException("circuit is open")));
+
+        refreshService.refreshStaleCourts();
+
+        // Left stale so the batch is retried on the next tick
+        assertNull(court.getLastSyncedAt());
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    @Test
+    public void testApplyUpstream_NoChanges() {
+        BasketballCourt upstream = new BasketballCourt(element(1L, Map.of("name", "Court")));
+        BasketballCourt court = new BasketballCourt(element(1L, Map.of("name", "Court")));
+
+        assertFalse(CourtRefreshService.applyUpstream(court, upstream));
+    }
+}
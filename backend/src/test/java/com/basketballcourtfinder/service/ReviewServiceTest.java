@@ -1,21 +1,32 @@
 package com.basketballcourtfinder.service;
 
 import com.basketballcourtfinder.dto.ReviewDTO;
+import com.basketballcourtfinder.dto.ReviewListing;
 import com.basketballcourtfinder.dto.ReviewResponseDTO;
 import com.basketballcourtfinder.entity.*;
 import com.basketballcourtfinder.enums.SortMethod;
 import com.basketballcourtfinder.exceptions.EntityAlreadyExistsException;
 import com.basketballcourtfinder.exceptions.EntityNotFoundException;
+import com.basketballcourtfinder.repository.CourtRatingRepository;
 import com.basketballcourtfinder.repository.ReviewRepository;
 import com.basketballcourtfinder.repository.UserRepository;
-import com.basketballcourtfinder.repository.VoteRepository;
+import com.basketballcourtfinder.util.CursorUtils;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.SQLException;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -31,15 +42,15 @@ public class ReviewServiceTest {
     @MockitoBean
     private ReviewRepository reviewRepository;
 
-    @MockitoBean
-    private VoteRepository voteRepository;
-
     @MockitoBean
     private UserRepository userRepository;
 
     @MockitoBean
     private BasketballCourtService courtService;
 
+    @MockitoBean
+    private CourtRatingRepository courtRatingRepository;
+
     private Long courtId;
     private Long userId;
     private Review userReview;
@@ -96,14 +107,11 @@ public class ReviewServiceTest {
 
     @Test
     public void testFindCourtReviews_Success() {
-        Vote vote = new Vote();
-        vote.setType(VoteType.UPVOTE);
-        vote.setReview(userReview);
-
-        // Mock repository behavior
-        when(reviewRepository.findByCourtId(courtId)).thenReturn(Arrays.asList(userReview, higherNewer));
-        when(voteRepository.findByUserIdAndReview_ReviewIdIn(eq(userId), anyList()))
-                .thenReturn(Collections.singletonList(vote));
+        // Mock repository behavior, the page query resolves the user's vote on each review
+        when(reviewRepository.findListingByCourtIdAndUserId(courtId, userId))
+                .thenReturn(Optional.of(listing(userReview, VoteType.UPVOTE)));
+        when(reviewRepository.findCourtPage(eq(courtId), eq(userId), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(listing(higherNewer, VoteType.DOWNVOTE))));
 
         // Call service method
         Map<String, Object> response = reviewService.findCourtReviews(courtId, userId, 1, 10, SortMethod.NEWEST);
@@ -120,16 +128,18 @@ public class ReviewServiceTest {
         // Validate other reviews list
         List<ReviewResponseDTO> otherReviews = (List<ReviewResponseDTO>) response.get("otherReviews");
         assertThat(otherReviews).hasSize(1);
+        assertThat(otherReviews.get(0).isUpvoted()).isFalse();
+        assertThat(otherReviews.get(0).isDownvoted()).isTrue();
 
         // Verify repository calls
-        verify(reviewRepository, times(1)).findByCourtId(courtId);
-        verify(voteRepository, times(1)).findByUserIdAndReview_ReviewIdIn(eq(userId), anyList());
+        verify(reviewRepository, times(1)).findCourtPage(eq(courtId), eq(userId), any(Pageable.class));
     }
 
     @Test
     public void testFindCourtReviews_NoReviews() {
 
-        when(reviewRepository.findByCourtId(courtId)).thenReturn(Collections.emptyList());
+        when(reviewRepository.findCourtPage(eq(courtId), eq(userId), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
 
         // Act
         Map<String, Object> result = reviewService.findCourtReviews(courtId, userId, 1, 10, SortMethod.NEWEST);
@@ -142,17 +152,16 @@ public class ReviewServiceTest {
         assertThat(userReview).isEmpty();
         assertThat(((List<?>) result.get("otherReviews")).isEmpty()).isTrue();
 
-        verify(reviewRepository).findByCourtId(courtId);
-        verify(voteRepository, never()).findByUserIdAndReview_ReviewIdIn(anyLong(), anyList());
+        verify(reviewRepository).findCourtPage(eq(courtId), eq(userId), any(Pageable.class));
     }
 
     @Test
     public void testFindCourtReviews_NoVotes() {
 
         // Mock repository behavior
-        when(reviewRepository.findByCourtId(courtId)).thenReturn(Collections.singletonList(userReview));
-        when(voteRepository.findByUserIdAndReview_ReviewIdIn(eq(userId), anyList()))
-                .thenReturn(Collections.emptyList());
+        when(reviewRepository.findListingByCourtIdAndUserId(courtId, userId)).thenReturn(Optional.of(listing(userReview)));
+        when(reviewRepository.findCourtPage(eq(courtId), eq(userId), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
 
         // Call service method
         Map<String, Object> response = reviewService.findCourtReviews(courtId, userId, 1, 10, SortMethod.NEWEST);
@@ -168,8 +177,7 @@ public class ReviewServiceTest {
         assertThat(otherReviews.isEmpty()).isTrue();
 
         // Verify interactions
-        verify(reviewRepository, times(1)).findByCourtId(courtId);
-        verify(voteRepository, times(1)).findByUserIdAndReview_ReviewIdIn(eq(userId), anyList());
+        verify(reviewRepository, times(1)).findListingByCourtIdAndUserId(courtId, userId);
     }
 
 
@@ -185,12 +193,39 @@ public class ReviewServiceTest {
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(courtService.getCourt(1L)).thenReturn(court);
-        when(reviewRepository.findByCourtIdAndUserId(1L, 1L)).thenReturn(Optional.empty());
         when(reviewRepository.save(any(Review.class))).thenReturn(new Review());
 
+        when(courtRatingRepository.adjust(1L, 5, 1)).thenReturn(1);
+
         reviewService.saveReview(reviewDTO, 1L);
 
         verify(reviewRepository).save(any(Review.class));
+        verify(courtRatingRepository).adjust(1L, 5, 1);
+        verify(courtRatingRepository, never()).save(any(CourtRating.class));
+    }
+
+    @Test
+    public void testSaveReview_ResolvesCourtOutsideTransaction() {
+        ReviewDTO reviewDTO = new ReviewDTO();
+        reviewDTO.setBody("This is a test review");
+        reviewDTO.setRating(5);
+        reviewDTO.setCourtId(1L);
+
+        List<Boolean> inTransaction = new ArrayList<>();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(courtService.getCourt(1L)).thenAnswer(invocation -> {
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return new BasketballCourt();
+        });
+        when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> {
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.getArgument(0);
+        });
+
+        reviewService.saveReview(reviewDTO, 1L);
+
+        // No connection is held while the court may be fetched from Overpass
+        assertThat(inTransaction).containsExactly(false, true);
     }
 
     @Test
@@ -238,13 +273,34 @@ public class ReviewServiceTest {
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(courtService.getCourt(1L)).thenReturn(court);
-        when(reviewRepository.findByCourtIdAndUserId(1L, 1L)).thenReturn(Optional.of(new Review()));
+        when(reviewRepository.save(any(Review.class))).thenThrow(new DataIntegrityViolationException("Duplicate entry",
+                new ConstraintViolationException("Duplicate entry", new SQLException(), "review.uk_review_court_user")));
 
         assertThrows(EntityAlreadyExistsException.class, () -> {
             reviewService.saveReview(reviewDTO, 1L);
         });
 
-        verify(reviewRepository, never()).save(any(Review.class));
+        verify(courtRatingRepository, never()).adjust(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void testSaveReview_OtherConstraintViolation() {
+        ReviewDTO reviewDTO = new ReviewDTO();
+        reviewDTO.setBody("This is a test review");
+        reviewDTO.setRating(5);
+        reviewDTO.setCourtId(1L);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(courtService.getCourt(1L)).thenReturn(new BasketballCourt());
+        when(reviewRepository.save(any(Review.class))).thenThrow(new DataIntegrityViolationException("Data too long",
+                new DataException("Data too long for column 'body'", new SQLException())));
+
+        // Only the one review per court key means the user already reviewed the court
+        assertThrows(DataIntegrityViolationException.class, () -> {
+            reviewService.saveReview(reviewDTO, 1L);
+        });
+
+        verify(courtRatingRepository, never()).adjust(anyLong(), anyLong(), anyInt());
     }
 
     @Test
@@ -256,7 +312,7 @@ public class ReviewServiceTest {
         review.setReviewId(1L);
         review.setBody("Original Body");
 
-        when(reviewRepository.findById(1L)).thenReturn(Optional.of(review));
+        when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(review));
         when(reviewRepository.save(any(Review.class))).thenReturn(review);
 
         ReviewResponseDTO updates = new ReviewResponseDTO();
@@ -269,7 +325,7 @@ public class ReviewServiceTest {
 
     @Test
     public void testPatchReviewBody_ReviewNotFound() throws Exception {
-        when(reviewRepository.findById(1L)).thenReturn(Optional.empty());
+        when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
 
         ReviewResponseDTO updates = new ReviewResponseDTO();
         updates.setContent("New Body");
@@ -289,9 +345,13 @@ public class ReviewServiceTest {
         review.setUser(user);
         review.setReviewId(1L);
         review.setRating(3);
+        BasketballCourt court = new BasketballCourt();
+        court.setId(courtId);
+        review.setCourt(court);
 
-        when(reviewRepository.findById(1L)).thenReturn(Optional.of(review));
+        when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(review));
         when(reviewRepository.save(any(Review.class))).thenReturn(review);
+        when(courtRatingRepository.adjust(courtId, 2, 0)).thenReturn(1);
 
         ReviewResponseDTO updates = new ReviewResponseDTO();
         updates.setRating(5);
@@ -299,11 +359,44 @@ public class ReviewServiceTest {
         reviewService.partialUpdate(1L, 1L, updates);
 
         verify(reviewRepository).save(any(Review.class));
+        verify(courtRatingRepository).adjust(courtId, 2, 0);
+    }
+
+    @Test
+    public void testPatchReviewRating_DeltaFromLockedRow() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        BasketballCourt court = new BasketballCourt();
+        court.setId(courtId);
+
+        // A concurrent edit changed the rating from 1 to 3 before this update got the row lock
+        Review stale = new Review();
+        stale.setUser(user);
+        stale.setCourt(court);
+        stale.setReviewId(1L);
+        stale.setRating(1);
+        Review locked = new Review();
+        locked.setUser(user);
+        locked.setCourt(court);
+        locked.setReviewId(1L);
+        locked.setRating(3);
+
+        when(reviewRepository.findById(1L)).thenReturn(Optional.of(stale));
+        when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(locked));
+        when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ReviewResponseDTO updates = new ReviewResponseDTO();
+        updates.setRating(5);
+
+        reviewService.partialUpdate(1L, 1L, updates);
+
+        verify(courtRatingRepository).adjust(courtId, 2, 0);
+        verify(reviewRepository, never()).findById(anyLong());
     }
 
     @Test
     public void testPatchReviewRating_ReviewNotFound() throws Exception {
-        when(reviewRepository.findById(1L)).thenReturn(Optional.empty());
+        when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
 
         ReviewResponseDTO updates = new ReviewResponseDTO();
         updates.setRating(5);
@@ -321,15 +414,35 @@ public class ReviewServiceTest {
         when(courtService.getCourt(courtId)).thenReturn(new BasketballCourt());
         Review review = new Review();
         review.setReviewId(1L);
+        review.setRating(4);
         review.setUser(new User());
         review.setCourt(new BasketballCourt());
 
-        when(reviewRepository.findByCourtIdAndUserId(courtId, userId)).thenReturn(Optional.of(review));
+        when(reviewRepository.findByCourtIdAndUserIdForUpdate(courtId, userId)).thenReturn(Optional.of(review));
         doNothing().when(reviewRepository).deleteById(1L);
+        when(courtRatingRepository.adjust(courtId, -4, -1)).thenReturn(1);
 
         reviewService.deleteReview(courtId, userId);
 
         verify(reviewRepository).deleteById(1L);
+        verify(courtRatingRepository).adjust(courtId, -4, -1);
+    }
+
+    @Test
+    public void testDeleteReview_DeltaFromLockedRow() {
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(courtService.getCourt(courtId)).thenReturn(new BasketballCourt());
+        Review locked = new Review();
+        locked.setReviewId(1L);
+        locked.setRating(2);
+
+        when(reviewRepository.findByCourtIdAndUserIdForUpdate(courtId, userId)).thenReturn(Optional.of(locked));
+
+        reviewService.deleteReview(courtId, userId);
+
+        // The rating taken back is the one stored when the lock was acquired
+        verify(courtRatingRepository).adjust(courtId, -2, -1);
+        verify(reviewRepository, never()).findById(anyLong());
     }
 
     @Test
@@ -359,7 +472,7 @@ public class ReviewServiceTest {
     public void testDeleteReview_ReviewNotFound() {
         when(userRepository.existsById(userId)).thenReturn(true);
         when(courtService.getCourt(courtId)).thenReturn(new BasketballCourt());
-        when(reviewRepository.findByCourtIdAndUserId(courtId, userId)).thenReturn(Optional.empty());
+        when(reviewRepository.findByCourtIdAndUserIdForUpdate(courtId, userId)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> {
             reviewService.deleteReview(courtId, userId);
@@ -371,74 +484,259 @@ public class ReviewServiceTest {
     @Test
     public void testGetCourtRating_MultipleRatings() {
 
-        when(reviewRepository.findByCourtId(courtId)).thenReturn(List.of(higherNewer, lowerOlder));
+        when(courtRatingRepository.findById(courtId)).thenReturn(Optional.of(new CourtRating(courtId, 6, 2)));
 
 
         Map map = Map.of("rating", 3.0, "reviews", 2);
 
+        assert(Objects.equals(reviewService.getCourtRating(courtId), map));
+        verify(reviewRepository, never()).findByCourtId(anyLong());
+    }
+
+    @Test
+    public void testGetCourtRating_RoundsAverage() {
+        when(courtRatingRepository.findById(courtId)).thenReturn(Optional.of(new CourtRating(courtId, 5, 3)));
+        Map map = Map.of("rating", 1.67, "reviews", 3);
+
         assert(Objects.equals(reviewService.getCourtRating(courtId), map));
     }
 
     @Test
     public void testGetCourtRating_NoRatings() {
-        when(reviewRepository.findByCourtId(courtId)).thenReturn(List.of());
+        when(courtRatingRepository.findById(courtId)).thenReturn(Optional.empty());
         Map map = Map.of("rating", 0.0, "reviews", 0);
 
+        // Reading never writes, totals of reviewed courts are backfilled on startup
         assert(Objects.equals(reviewService.getCourtRating(courtId), map));
+        verify(courtRatingRepository, never()).save(any(CourtRating.class));
+        verify(courtRatingRepository, never()).adjust(anyLong(), anyLong(), anyInt());
     }
 
     @Test
-    public void testFindCourtReviews_SortByNewest() {
+    public void testBackfillCourtRatings_SeededConcurrently() {
+        when(courtRatingRepository.backfill())
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry for key 'PRIMARY'"));
 
-        // Mock repository behavior
-        when(reviewRepository.findByCourtId(courtId)).thenReturn(Arrays.asList(higherNewer, lowerOlder));
+        // Another instance seeding the same courts is not an error
+        reviewService.backfillCourtRatings();
 
-        // Call service method with SortMethod.NEWEST
-        Map<String, Object> response = reviewService.findCourtReviews(courtId, userId, 1, 10, SortMethod.NEWEST);
+        verify(courtRatingRepository).backfill();
+    }
 
-        List<ReviewResponseDTO> otherReviews = (List<ReviewResponseDTO>) response.get("otherReviews");
+    @Test
+    public void testGetCourtRatings() {
+        when(courtRatingRepository.findAllById(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(new CourtRating(1L, 9, 2), new CourtRating(2L, 3, 1)));
+
+        Map<Long, Map<String, ?>> ratings = reviewService.getCourtRatings(List.of(1L, 2L, 3L, 1L));
+
+        assertThat(ratings).containsOnlyKeys(1L, 2L, 3L);
+        assertThat(ratings.get(1L)).isEqualTo(Map.of("rating", 4.5, "reviews", 2));
+        assertThat(ratings.get(2L)).isEqualTo(Map.of("rating", 3.0, "reviews", 1));
+        assertThat(ratings.get(3L)).isEqualTo(Map.of("rating", 0.0, "reviews", 0));
+        verify(reviewRepository, never()).findByCourtId(anyLong());
+        verify(courtRatingRepository, never()).saveAll(anyList());
+    }
 
-        // Ensure reviews are sorted by date, with the newest first
-        assertThat(otherReviews.get(0).getReviewId()).isEqualTo(2L);
-        assertThat(otherReviews.get(1).getReviewId()).isEqualTo(3L);
+    @Test
+    public void testGetCourtRatings_TooManyCourts() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id <= ReviewService.MAX_RATINGS_BATCH_SIZE; id++) {
+            ids.add(id);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> reviewService.getCourtRatings(ids));
+        verify(courtRatingRepository, never()).findAllById(anyList());
+    }
+
+    private static ReviewListing listing(Review review) {
+        return listing(review, null);
+    }
 
-        verify(reviewRepository, times(1)).findByCourtId(courtId);
+    private static ReviewListing listing(Review review, VoteType userVote) {
+        return new ReviewListing() {
+            @Override
+            public long getReviewId() {
+                return review.getReviewId();
+            }
+
+            @Override
+            public String getBody() {
+                return review.getBody();
+            }
+
+            @Override
+            public int getRating() {
+                return review.getRating();
+            }
+
+            @Override
+            public Date getCreatedAt() {
+                return review.getCreatedAt();
+            }
+
+            @Override
+            public int getVoteCount() {
+                return review.getVoteCount();
+            }
+
+            @Override
+            public boolean isEdited() {
+                return review.isEdited();
+            }
+
+            @Override
+            public String getAuthorDisplayName() {
+                return review.getUser().getDisplayName();
+            }
+
+            @Override
+            public int getAuthorUpvoteCount() {
+                return review.getUser().getUpvoteCount();
+            }
+
+            @Override
+            public int getAuthorDownvoteCount() {
+                return review.getUser().getDownvoteCount();
+            }
+
+            @Override
+            public VoteType getUserVote() {
+                return userVote;
+            }
+        };
+    }
+
+    @Test
+    public void testFindCourtReviews_SortByNewest() {
+        Pageable pageable = findCourtReviewsPageable(1, 10, SortMethod.NEWEST);
+
+        // Ensure reviews are sorted by date, with the newest first
+        assertThat(pageable.getSort()).isEqualTo(Sort.by(Sort.Direction.DESC, "createdAt", "reviewId"));
     }
 
     @Test
     public void testFindCourtReviews_SortByHighestRated() {
+        Pageable pageable = findCourtReviewsPageable(1, 10, SortMethod.HIGHEST);
 
-        // Mock repository behavior
-        when(reviewRepository.findByCourtId(courtId)).thenReturn(Arrays.asList(higherNewer, lowerOlder));
+        // Ensure reviews are sorted by rating, with the highest rated first
+        assertThat(pageable.getSort()).isEqualTo(Sort.by(Sort.Direction.DESC, "rating", "reviewId"));
+    }
 
-        // Call service method with SortMethod.HIGHEST_RATED
-        Map<String, Object> response = reviewService.findCourtReviews(courtId, userId, 1, 10, SortMethod.HIGHEST);
+    @Test
+    public void testFindCourtReviews_SortByLowestRated() {
+        Pageable pageable = findCourtReviewsPageable(1, 10, SortMethod.LOWEST);
+
+        // Ensure reviews are sorted by rating, with the lowest rated first
+        assertThat(pageable.getSort()).isEqualTo(Sort.by(Sort.Direction.ASC, "rating", "reviewId"));
+    }
+
+    @Test
+    public void testFindCourtReviews_PagesInDatabase() {
+        Pageable pageable = findCourtReviewsPageable(3, 20, SortMethod.NEWEST);
+
+        assertThat(pageable.getOffset()).isEqualTo(40);
+        assertThat(pageable.getPageSize()).isEqualTo(20);
+        verify(reviewRepository, never()).findByCourtId(anyLong());
+    }
+
+    @Test
+    public void testFindCourtReviews_ReturnsPageInOrder() {
+        when(reviewRepository.findCourtPage(eq(courtId), isNull(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(listing(higherNewer), listing(lowerOlder))));
+
+        Map<String, Object> response = reviewService.findCourtReviews(courtId, null, 1, 10, SortMethod.NEWEST);
 
         List<ReviewResponseDTO> otherReviews = (List<ReviewResponseDTO>) response.get("otherReviews");
+        assertThat(otherReviews).extracting(ReviewResponseDTO::getReviewId).containsExactly(2L, 3L);
+        assertThat(response).doesNotContainKey("userReview");
+    }
 
-        // Ensure reviews are sorted by rating, with the highest rated first
-        assertThat(otherReviews.get(0).getReviewId()).isEqualTo(2L);
-        assertThat(otherReviews.get(1).getReviewId()).isEqualTo(3L);
+    @Test
+    public void testFindCourtReviews_MapsAuthorFromProjection() {
+        otherUser.setUpvoteCount(12);
+        when(reviewRepository.findCourtPage(eq(courtId), isNull(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(listing(higherNewer))));
+
+        Map<String, Object> response = reviewService.findCourtReviews(courtId, null, 1, 10, SortMethod.NEWEST);
+
+        ReviewResponseDTO review = ((List<ReviewResponseDTO>) response.get("otherReviews")).get(0);
+        assertThat(review.getAuthorDisplayName()).isEqualTo("Jane Doe");
+        assertThat(review.getAuthorTrustScore()).isEqualTo(otherUser.getTrustScore());
+        assertThat(review.getAuthorTrustScore()).isEqualTo(100.0);
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    public void testFindCourtReviews_ReturnsNextCursor() {
+        when(reviewRepository.findCourtPage(eq(courtId), isNull(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(listing(higherNewer), listing(lowerOlder)), Pageable.ofSize(2), true));
 
-        verify(reviewRepository, times(1)).findByCourtId(courtId);
+        Map<String, Object> response = reviewService.findCourtReviews(courtId, null, 1, 2, SortMethod.NEWEST);
+
+        assertThat(response.get("nextCursor")).isEqualTo(CursorUtils.encode("NEWEST", 1000L, 3L));
     }
 
     @Test
-    public void testFindCourtReviews_SortByLowestRated() {
+    public void testFindCourtReviews_LastPageHasNoCursor() {
+        when(reviewRepository.findCourtPage(eq(courtId), isNull(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(listing(higherNewer), listing(lowerOlder)), Pageable.ofSize(2), false));
 
-        // Mock repository behavior
-        when(reviewRepository.findByCourtId(courtId)).thenReturn(Arrays.asList(higherNewer, lowerOlder));
+        Map<String, Object> response = reviewService.findCourtReviews(courtId, null, 1, 2, SortMethod.NEWEST);
 
-        // Call service method with SortMethod.LOWEST_RATED
-        Map<String, Object> response = reviewService.findCourtReviews(courtId, userId, 1, 10, SortMethod.LOWEST);
+        assertThat(response).doesNotContainKey("nextCursor");
+    }
 
-        List<ReviewResponseDTO> otherReviews = (List<ReviewResponseDTO>) response.get("otherReviews");
+    @Test
+    public void testFindCourtReviews_ContinuesAfterCursor() {
+        when(reviewRepository.findCourtPageAfterNewest(eq(courtId), isNull(), eq(new Date(1000L)), eq(3L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(listing(userReview))));
+        when(reviewRepository.findCourtPageAfterHighest(eq(courtId), isNull(), eq(5), eq(2L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(listing(lowerOlder))));
+        when(reviewRepository.findCourtPageAfterLowest(eq(courtId), isNull(), eq(1), eq(3L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(listing(higherNewer))));
+
+        Map<String, Object> newest = reviewService.findCourtReviews(courtId, null, 5, 10, SortMethod.NEWEST,
+                CursorUtils.encode("NEWEST", 1000L, 3L));
+        Map<String, Object> highest = reviewService.findCourtReviews(courtId, null, 1, 10, SortMethod.HIGHEST,
+                CursorUtils.encode("HIGHEST", 5, 2L));
+        Map<String, Object> lowest = reviewService.findCourtReviews(courtId, null, 1, 10, SortMethod.LOWEST,
+                CursorUtils.encode("LOWEST", 1, 3L));
+
+        assertThat((List<ReviewResponseDTO>) newest.get("otherReviews"))
+                .extracting(ReviewResponseDTO::getReviewId).containsExactly(1L);
+        assertThat((List<ReviewResponseDTO>) highest.get("otherReviews"))
+                .extracting(ReviewResponseDTO::getReviewId).containsExactly(3L);
+        assertThat((List<ReviewResponseDTO>) lowest.get("otherReviews"))
+                .extracting(ReviewResponseDTO::getReviewId).containsExactly(2L);
+        verify(reviewRepository, never()).findCourtPage(anyLong(), any(), any(Pageable.class));
+    }
 
-        // Ensure reviews are sorted by rating, with the lowest rated first
-        assertThat(otherReviews.get(0).getReviewId()).isEqualTo(3L);
-        assertThat(otherReviews.get(1).getReviewId()).isEqualTo(2L);
+    @Test
+    public void testFindCourtReviews_CursorFromOtherSortMethod() {
+        String cursor = CursorUtils.encode("NEWEST", 1000L, 3L);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> reviewService.findCourtReviews(courtId, null, 1, 10, SortMethod.HIGHEST, cursor));
+    }
+
+    @Test
+    public void testFindCourtReviews_MalformedCursor() {
+        String cursor = CursorUtils.encode("NEWEST", "yesterday", 3L);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> reviewService.findCourtReviews(courtId, null, 1, 10, SortMethod.NEWEST, cursor));
+    }
+
+    private Pageable findCourtReviewsPageable(int page, int reviewsPerPage, SortMethod sortMethod) {
+        when(reviewRepository.findCourtPage(eq(courtId), eq(userId), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(listing(higherNewer), listing(lowerOlder))));
+
+        reviewService.findCourtReviews(courtId, userId, page, reviewsPerPage, sortMethod);
 
-        verify(reviewRepository, times(1)).findByCourtId(courtId);
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+        verify(reviewRepository).findCourtPage(eq(courtId), eq(userId), captor.capture());
+        return captor.getValue();
     }
 
 }
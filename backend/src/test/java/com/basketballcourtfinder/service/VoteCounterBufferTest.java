@@ -0,0 +1,104 @@
+package com.basketballcourtfinder.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class VoteCounterBufferTest {
+    private static final String REVIEW_SQL = "UPDATE review SET vote_count = vote_count + ? WHERE review_id = ?";
+
+    private static final String USER_SQL = "UPDATE user SET upvote_count = upvote_count + ?, " +
+            "downvote_count = downvote_count + ? WHERE id = ?";
+
+    private JdbcTemplate jdbcTemplate;
+    private VoteCounterBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        buffer = new VoteCounterBuffer(jdbcTemplate, new TransactionTemplate(mock(PlatformTransactionManager.class)), true);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_MergesDeltasPerId() {
+        // Two upvotes on review 1 by users 10 and 11, one downvote on review 2 by user 10
+        buffer.add(1L, 10L, 1, 1, 0);
+        buffer.add(1L, 11L, 1, 1, 0);
+        buffer.add(2L, 10L, -1, 0, 1);
+        assertEquals(4, buffer.pendingCount());
+
+        buffer.flush();
+
+        ArgumentCaptor<List<Object[]>> reviewRows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(REVIEW_SQL), reviewRows.capture());
+        List<Object[]> reviews = reviewRows.getValue().stream()
+                .sorted(Comparator.comparing(row -> (Long) row[1])).toList();
+        assertEquals(2, reviews.size());
+        assertArrayEquals(new Object[] { 2, 1L }, reviews.get(0));
+        assertArrayEquals(new Object[] { -1, 2L }, reviews.get(1));
+
+        ArgumentCaptor<List<Object[]>> userRows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(USER_SQL), userRows.capture());
+        List<Object[]> users = userRows.getValue().stream()
+                .sorted(Comparator.comparing(row -> (Long) row[2])).toList();
+        assertEquals(2, users.size());
+        assertArrayEquals(new Object[] { 1, 1, 10L }, users.get(0));
+        assertArrayEquals(new Object[] { 1, 0, 11L }, users.get(1));
+
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void testFlush_SkipsDeltasThatCancelOut() {
+        // Upvote followed by its removal
+        buffer.add(1L, 10L, 1, 1, 0);
+        buffer.add(1L, 10L, -1, -1, 0);
+        assertEquals(0, buffer.pendingCount());
+
+        buffer.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void testFlush_RequeuesOnFailure() {
+        when(jdbcTemplate.batchUpdate(eq(REVIEW_SQL), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Connection lost"));
+        buffer.add(1L, 10L, 1, 1, 0);
+
+        buffer.flush();
+
+        // Nothing is lost, and later votes merge into the requeued deltas
+        assertEquals(2, buffer.pendingCount());
+        buffer.add(1L, 10L, 1, 1, 0);
+        assertEquals(2, buffer.pendingCount());
+        buffer.flush();
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(REVIEW_SQL), anyList());
+    }
+
+    @Test
+    void testFlush_NothingPending() {
+        buffer.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+}
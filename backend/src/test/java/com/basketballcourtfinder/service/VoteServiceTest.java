@@ -11,9 +11,11 @@ import com.basketballcourtfinder.repository.UserRepository;
 import com.basketballcourtfinder.repository.VoteRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -23,6 +25,9 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -41,6 +46,9 @@ public class VoteServiceTest {
     @MockitoBean
     private UserRepository userRepository;
 
+    @MockitoBean
+    private VoteCounterBuffer counterBuffer;
+
     private User user;
     private Review review;
 
@@ -59,45 +67,121 @@ public class VoteServiceTest {
     @Test
     void testAddVote_NewVote() {
         // Mocking repository behavior
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(reviewRepository.findById(1L)).thenReturn(Optional.of(review));
         when(voteRepository.findByUserIdAndReview_ReviewId(1L, 1L)).thenReturn(Optional.empty());
+        when(reviewRepository.addVoteCount(1L, 1)).thenReturn(1);
+        when(userRepository.addVoteCounts(1L, 1, 0)).thenReturn(1);
+        when(reviewRepository.getReferenceById(1L)).thenReturn(review);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
 
         // Adding new vote
         voteService.addVote(1L, 1L, VoteType.UPVOTE);
 
-        // Verifying changes
-        assertEquals(1, user.getUpvoteCount());
-        assertEquals(1, review.getVoteCount());
+        // Verifying counters are incremented in the database and the vote is saved
+        ArgumentCaptor<Vote> captor = ArgumentCaptor.forClass(Vote.class);
+        verify(voteRepository).save(captor.capture());
+        assertEquals(VoteType.UPVOTE, captor.getValue().getType());
+        assertEquals(user, captor.getValue().getUser());
+        assertEquals(review, captor.getValue().getReview());
+        verify(reviewRepository).addVoteCount(1L, 1);
+        verify(userRepository).addVoteCounts(1L, 1, 0);
+        verify(userRepository, never()).findById(anyLong());
+        verify(reviewRepository, never()).findById(anyLong());
+        verify(userRepository, never()).save(any(User.class));
+        verify(reviewRepository, never()).save(any(Review.class));
+    }
+
+    @Test
+    void testAddVote_WriteBehind() {
+        when(counterBuffer.isEnabled()).thenReturn(true);
+        when(voteRepository.findByUserIdAndReview_ReviewId(1L, 1L)).thenReturn(Optional.empty());
+        when(reviewRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        voteService.addVote(1L, 1L, VoteType.UPVOTE);
+
+        // Vote row is written right away, the counter changes are left to the buffer
+        verify(voteRepository).save(any(Vote.class));
+        verify(counterBuffer).add(1L, 1L, 1, 1, 0);
+        verify(reviewRepository, never()).addVoteCount(anyLong(), anyInt());
+        verify(userRepository, never()).addVoteCounts(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testAddVote_WriteBehindNonExistentReview() {
+        when(counterBuffer.isEnabled()).thenReturn(true);
+        when(voteRepository.findByUserIdAndReview_ReviewId(1L, 1L)).thenReturn(Optional.empty());
+        when(reviewRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> {
+            voteService.addVote(1L, 1L, VoteType.UPVOTE);
+        });
+
+        verify(voteRepository, never()).save(any(Vote.class));
+        verify(counterBuffer, never()).add(anyLong(), anyLong(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testRemoveVote_WriteBehind() {
+        Vote existingVote = new Vote();
+        existingVote.setUser(user);
+        existingVote.setReview(review);
+        existingVote.setType(VoteType.DOWNVOTE);
+
+        when(counterBuffer.isEnabled()).thenReturn(true);
+        when(voteRepository.findByUserIdAndReview_ReviewId(1L, 1L)).thenReturn(Optional.of(existingVote));
+
+        ResponseEntity<?> response = voteService.removeVote(1L, 1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(voteRepository).delete(existingVote);
+        verify(counterBuffer).add(1L, 1L, 1, 0, -1);
+        verify(reviewRepository, never()).addVoteCount(anyLong(), anyInt());
+    }
+
+    @Test
+    void testAddVote_UsesReviewLockStripe() {
+        long acquisitions = voteService.getReviewLocks().getAcquisitionCount();
+        when(voteRepository.findByUserIdAndReview_ReviewId(1L, 1L)).thenReturn(Optional.empty());
+
+        // Lock is released even when the vote fails
+        assertThrows(EntityNotFoundException.class, () -> voteService.addVote(1L, 1L, VoteType.UPVOTE));
+        voteService.removeVote(1L, 1L);
+
+        assertEquals(acquisitions + 2, voteService.getReviewLocks().getAcquisitionCount());
+        assertEquals(64, voteService.getReviewLocks().getStripeCount());
+    }
+
+    @Test
+    void testAddVote_NewDownvote() {
+        when(voteRepository.findByUserIdAndReview_ReviewId(1L, 1L)).thenReturn(Optional.empty());
+        when(reviewRepository.addVoteCount(1L, -1)).thenReturn(1);
+        when(userRepository.addVoteCounts(1L, 0, 1)).thenReturn(1);
+
+        voteService.addVote(1L, 1L, VoteType.DOWNVOTE);
+
+        verify(reviewRepository).addVoteCount(1L, -1);
+        verify(userRepository).addVoteCounts(1L, 0, 1);
         verify(voteRepository).save(any(Vote.class));
-        verify(userRepository).save(user);
-        verify(reviewRepository).save(review);
     }
 
     @Test
     void testAddVote_ChangeVoteType() {
         // Mocking repository behavior
         Vote existingVote = new Vote();
-        user.setUpvoteCount(1);
         existingVote.setUser(user);
-        review.setVoteCount(1);
         existingVote.setReview(review);
         existingVote.setType(VoteType.UPVOTE);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(reviewRepository.findById(1L)).thenReturn(Optional.of(review));
         when(voteRepository.findByUserIdAndReview_ReviewId(1L, 1L)).thenReturn(Optional.of(existingVote));
 
         // Changing vote type from UPVOTE to DOWNVOTE
         voteService.addVote(1L, 1L, VoteType.DOWNVOTE);
 
         // Verifying changes
-        assertEquals(1, existingVote.getUser().getDownvoteCount());
-        assertEquals(0, existingVote.getUser().getUpvoteCount());
-        assertEquals(-1, review.getVoteCount());
-        verify(voteRepository).save(any(Vote.class));
-        verify(userRepository).save(user);
-        verify(reviewRepository).save(review);
+        assertEquals(VoteType.DOWNVOTE, existingVote.getType());
+        verify(reviewRepository).addVoteCount(1L, -2);
+        verify(userRepository).addVoteCounts(1L, -1, 1);
+        verify(voteRepository).save(existingVote);
     }
 
     @Test
@@ -108,62 +192,97 @@ public class VoteServiceTest {
         existingVote.setReview(review);
         existingVote.setType(VoteType.UPVOTE);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(reviewRepository.findById(1L)).thenReturn(Optional.of(review));
         when(voteRepository.findByUserIdAndReview_ReviewId(1L, 1L)).thenReturn(Optional.of(existingVote));
 
         // Attempting to add the same vote type again (should throw an exception)
         assertThrows(EntityAlreadyExistsException.class, () -> {
             voteService.addVote(1L, 1L, VoteType.UPVOTE);
         });
+
+        verify(reviewRepository, never()).addVoteCount(anyLong(), anyInt());
+    }
+
+    @Test
+    void testAddVote_ConcurrentDuplicateVote() {
+        when(voteRepository.findByUserIdAndReview_ReviewId(1L, 1L)).thenReturn(Optional.empty());
+        when(reviewRepository.addVoteCount(1L, 1)).thenReturn(1);
+        when(userRepository.addVoteCounts(1L, 1, 0)).thenReturn(1);
+        when(voteRepository.save(any(Vote.class))).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        assertThrows(EntityAlreadyExistsException.class, () -> {
+            voteService.addVote(1L, 1L, VoteType.UPVOTE);
+        });
     }
 
     @Test
     void testAddVote_NonExistentUser() {
         // Mocking repository behavior
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
-        when(reviewRepository.findById(1L)).thenReturn(Optional.of(review));
+        when(voteRepository.findByUserIdAndReview_ReviewId(1L, 1L)).thenReturn(Optional.empty());
+        when(reviewRepository.addVoteCount(1L, 1)).thenReturn(1);
+        when(userRepository.addVoteCounts(1L, 1, 0)).thenReturn(0);
 
         // Attempting to add vote for non-existent user (should throw an exception)
         assertThrows(EntityNotFoundException.class, () -> {
             voteService.addVote(1L, 1L, VoteType.UPVOTE);
         });
+
+        verify(voteRepository, never()).save(any(Vote.class));
     }
 
     @Test
     void testAddVote_NonExistentReview() {
         // Mocking repository behavior
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(reviewRepository.findById(1L)).thenReturn(Optional.empty());
+        when(voteRepository.findByUserIdAndReview_ReviewId(1L, 1L)).thenReturn(Optional.empty());
+        when(reviewRepository.addVoteCount(1L, 1)).thenReturn(0);
 
         // Attempting to add vote for non-existent review (should throw an exception)
         assertThrows(EntityNotFoundException.class, () -> {
             voteService.addVote(1L, 1L, VoteType.UPVOTE);
         });
+
+        verify(userRepository, never()).addVoteCounts(anyLong(), anyInt(), anyInt());
+        verify(voteRepository, never()).save(any(Vote.class));
     }
 
     @Test
     void testRemoveVote_VoteExists() {
         // Mocking repository behavior
         Vote existingVote = new Vote();
-        user.setUpvoteCount(1);
         existingVote.setUser(user);
-        review.setVoteCount(1);
         existingVote.setReview(review);
         existingVote.setType(VoteType.UPVOTE);
 
         when(voteRepository.findByUserIdAndReview_ReviewId(1L, 1L)).thenReturn(Optional.of(existingVote));
+        when(reviewRepository.addVoteCount(1L, -1)).thenReturn(1);
+        when(userRepository.addVoteCounts(1L, -1, 0)).thenReturn(1);
 
         // Removing vote
         ResponseEntity<?> response = voteService.removeVote(1L, 1L);
 
         // Verifying changes
         assertEquals("Vote removed successfully.", response.getBody());
-        assertEquals(0, user.getUpvoteCount());
-        assertEquals(0, review.getVoteCount());
+        verify(reviewRepository).addVoteCount(1L, -1);
+        verify(userRepository).addVoteCounts(1L, -1, 0);
+        verify(voteRepository).delete(existingVote);
+    }
+
+    @Test
+    void testRemoveVote_Downvote() {
+        Vote existingVote = new Vote();
+        existingVote.setUser(user);
+        existingVote.setReview(review);
+        existingVote.setType(VoteType.DOWNVOTE);
+
+        when(voteRepository.findByUserIdAndReview_ReviewId(1L, 1L)).thenReturn(Optional.of(existingVote));
+        when(reviewRepository.addVoteCount(1L, 1)).thenReturn(1);
+        when(userRepository.addVoteCounts(1L, 0, -1)).thenReturn(1);
+
+        ResponseEntity<?> response = voteService.removeVote(1L, 1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(reviewRepository).addVoteCount(1L, 1);
+        verify(userRepository).addVoteCounts(1L, 0, -1);
         verify(voteRepository).delete(existingVote);
-        verify(userRepository).save(user);
-        verify(reviewRepository).save(review);
     }
 
     @Test
@@ -177,6 +296,7 @@ public class VoteServiceTest {
         // Verifying response
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertEquals("No vote found to remove.", response.getBody());
+        verify(reviewRepository, never()).addVoteCount(anyLong(), anyInt());
     }
 
 }
@@ -0,0 +1,74 @@
+package com.basketballcourtfinder.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 1000, () -> 0);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        assertTrue(breaker.tryAcquire());
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testSuccessResetsFailureCount() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 1000, () -> 0);
+
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenAllowsSingleTrial() {
+        AtomicLong now = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, now::get);
+
+        breaker.recordFailure();
+        now.set(1000);
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        // A failed trial reopens the circuit for another full period
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        now.set(1999);
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testRecoveryNotifiesListeners() {
+        AtomicLong now = new AtomicLong();
+        AtomicInteger recoveries = new AtomicInteger();
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, now::get);
+        breaker.onRecovery(recoveries::incrementAndGet);
+
+        breaker.recordSuccess();
+        assertEquals(0, recoveries.get());
+
+        breaker.recordFailure();
+        now.set(1000);
+        assertTrue(breaker.tryAcquire());
+        breaker.recordSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(1, recoveries.get());
+    }
+}
@@ -0,0 +1,21 @@
+package com.basketballcourtfinder.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CursorUtilsTest {
+
+    @Test
+    public void testRoundTrip() {
+        String cursor = CursorUtils.encode(12.345678901234, 42L);
+
+        assertArrayEquals(new String[] { "12.345678901234", "42" }, CursorUtils.decode(cursor, 2));
+    }
+
+    @Test
+    public void testDecode_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> CursorUtils.decode("%%%", 2));
+        assertThrows(IllegalArgumentException.class, () -> CursorUtils.decode(CursorUtils.encode(1), 2));
+    }
+}
@@ -0,0 +1,34 @@
+package com.basketballcourtfinder.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeoUtilsTest {
+
+    @Test
+    public void testDistance() {
+        // One degree of latitude is about 111.2 km
+        assertEquals(111_195, GeoUtils.distance(0, 0, 1, 0), 1);
+        assertEquals(0, GeoUtils.distance(43.65, -79.38, 43.65, -79.38));
+    }
+
+    @Test
+    public void testBoundingBox_ContainsRadius() {
+        double[] box = GeoUtils.boundingBox(43.65, -79.38, 2000);
+
+        // The points due north and due east at exactly the radius lie on the box edges
+        assertEquals(2000, GeoUtils.distance(43.65, -79.38, box[2], -79.38), 1);
+        assertEquals(2000, GeoUtils.distance(43.65, -79.38, 43.65, box[3]), 1);
+        assertEquals(43.65 - (box[2] - 43.65), box[0], 1e-9);
+    }
+
+    @Test
+    public void testBoundingBox_Clamped() {
+        double[] box = GeoUtils.boundingBox(89.999, 179.999, 5000);
+
+        assertEquals(90, box[2]);
+        assertEquals(180, box[3]);
+        assertEquals(-180, box[1]);
+    }
+}
@@ -0,0 +1,73 @@
+package com.basketballcourtfinder.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testExecute_ConcurrentCallersShareOneCall() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("query", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = singleFlight.execute("query", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+
+        assertSame(first, second);
+        assertEquals(1, singleFlight.inFlightCount());
+
+        upstream.complete("result");
+
+        assertEquals("result", first.join());
+        assertEquals("result", second.join());
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    public void testExecute_DifferentKeysRunSeparately() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        CompletableFuture<String> first = singleFlight.execute("a", () -> CompletableFuture.completedFuture("a"));
+        CompletableFuture<String> second = singleFlight.execute("b", () -> CompletableFuture.completedFuture("b"));
+
+        assertEquals("a", first.join());
+        assertEquals("b", second.join());
+    }
+
+    @Test
+    public void testExecute_KeyReleasedAfterCompletion() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute("query", () -> CompletableFuture.completedFuture("v" + calls.incrementAndGet())).join();
+        String second = singleFlight.execute("query",
+                () -> CompletableFuture.completedFuture("v" + calls.incrementAndGet())).join();
+
+        assertEquals("v2", second);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testExecute_FailureIsSharedAndReleased() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        CompletableFuture<String> failed = singleFlight.execute("query", () -> {
+            throw new IllegalStateException("upstream down");
+        });
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+}
@@ -0,0 +1,101 @@
+package com.basketballcourtfinder.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripedLockTest {
+
+    @Test
+    public void testStripeCount_RoundsUpToPowerOfTwo() {
+        assertEquals(1, new StripedLock(1).getStripeCount());
+        assertEquals(64, new StripedLock(64).getStripeCount());
+        assertEquals(128, new StripedLock(100).getStripeCount());
+        assertThrows(IllegalArgumentException.class, () -> new StripedLock(0));
+    }
+
+    @Test
+    public void testStripeIndex_SameKeySameStripe() {
+        StripedLock locks = new StripedLock(16);
+
+        for (long key = 0; key < 1000; key++) {
+            int index = locks.stripeIndex(key);
+            assertEquals(index, locks.stripeIndex(key));
+            assertTrue(index >= 0 && index < 16);
+        }
+    }
+
+    @Test
+    public void testExecute_ReturnsResultAndCountsAcquisitions() {
+        StripedLock locks = new StripedLock(4);
+
+        assertEquals("done", locks.execute(7L, () -> "done"));
+        locks.execute(7L, () -> { });
+
+        assertEquals(2, locks.getAcquisitionCount());
+        assertEquals(0, locks.getContendedCount());
+        assertEquals(0, locks.getContentionRate());
+    }
+
+    @Test
+    public void testExecute_SameKeyIsMutuallyExclusive() throws Exception {
+        StripedLock locks = new StripedLock(4);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger inside = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<?> first = pool.submit(() -> locks.execute(1L, () -> {
+                inside.incrementAndGet();
+                holding.countDown();
+                await(release);
+                inside.decrementAndGet();
+            }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            Future<Integer> second = pool.submit(() -> locks.execute(1L, inside::get));
+
+            // The second caller has to wait for the first one to leave
+            while (locks.getContendedCount() == 0) {
+                Thread.sleep(1);
+            }
+            assertFalse(second.isDone());
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            assertEquals(0, second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, locks.getContendedCount());
+            assertEquals(0.5, locks.getContentionRate());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecute_ReleasesLockOnException() {
+        StripedLock locks = new StripedLock(1);
+
+        assertThrows(IllegalStateException.class, () -> locks.execute(1L, () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals("ok", locks.execute(2L, () -> "ok"));
+        assertEquals(0, locks.getContendedCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}